@@ -20,6 +20,24 @@
  * boolean isEmpty( )     --> Return true if empty; else false
  * void makeEmpty( )      --> Remove all items
  * void printTree( )      --> Print tree in sorted order
+ * void enableBloomFilter( n, p ) --> Answer most contains of absent items from a Bloom filter
+ * BlockedBloomFilter getBloomFilter( ) --> The filter and its hit counters, or null
+ * static AvlTree fromSorted( items ) --> Build a balanced tree from ascending items in O(N)
+ * void appendSorted( items )  --> Add ascending items, all larger than findMax( ), in O(M + log N)
+ * int size( )            --> Return number of items
+ * int rank( x )          --> Return number of items smaller than x
+ * Comparable select( k ) --> Return item with rank k (the (k+1)-th smallest)
+ * int countBetween( lo, hi ) --> Return number of items x with lo <= x <= hi
+ * Iterator iterator( )   --> Iterate over items in sorted order
+ * Spliterator spliterator( ) --> Splittable sorted traversal of all items
+ * Spliterator range( lo, hi ) --> Splittable sorted traversal of items x with lo <= x <= hi
+ * void join( k, right )  --> Append k and every item of right (all items of this < k < all of right)
+ * AvlTree split( x )     --> Keep items <= x, return a tree of the items > x
+ * void union( other )        --> Add every item of other
+ * void intersection( other ) --> Keep only items also in other
+ * void difference( other )   --> Remove every item of other
+ * void writeTo( out, codec )  --> Write the items in sorted order to a stream or FileChannel
+ * static AvlTree readFrom( in, codec ) --> Rebuild a tree written by writeTo in O(N)
  *
  *   Remarks
  *   -------
@@ -42,12 +60,31 @@
  * Observation of AVL tree is explained in HashChain.java
  *
  */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
 /**
  * Implements an AVL tree.
  * Note that all "matching" is based on the compareTo method.
  * @author Mark Allen Weiss
  */
-public class AvlTree<AnyType extends Comparable<? super AnyType>>
+public class AvlTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType>
 {
     /**
      * Construct the tree.
@@ -64,6 +101,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
     public void insert( AnyType x )
     {
         root = insert( x, root );
+        if( bloom != null )
+            bloom.add( x.hashCode( ) );
     }
 
     /**
@@ -132,7 +171,258 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
      */
     public boolean contains( AnyType x )
     {
-        return contains( x, root );
+        if( bloom != null && !bloom.mightContain( x.hashCode( ) ) )
+            return false;   // Definitely never inserted
+        boolean found = contains( x, root );
+        if( !found && bloom != null )
+            bloom.recordFalsePositive( );
+        return found;
+    }
+
+    /**
+     * Put a blocked Bloom filter in front of contains, so most searches
+     * for absent items stop before touching the tree. Items already in
+     * the tree are added. Items are hashed with hashCode, which must be
+     * consistent with compareTo. Removed items stay in the filter, so a
+     * search for one is counted as a false positive.
+     * @param expectedCount number of items the tree will hold.
+     * @param falsePositiveRate wanted rate of "maybe" answers for absent items.
+     */
+    public void enableBloomFilter( long expectedCount, double falsePositiveRate )
+    {
+        BlockedBloomFilter filter = new BlockedBloomFilter( expectedCount, falsePositiveRate );
+        addToFilter( filter, root );
+        bloom = filter;
+    }
+
+    /**
+     * Return the Bloom filter in front of contains, or null if none.
+     */
+    public BlockedBloomFilter getBloomFilter( )
+    {
+        return bloom;
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return size( root );
+    }
+
+    /**
+     * Count the items smaller than x, in O(log N).
+     * @param x the item to rank; it need not be in the tree.
+     * @return the number of items smaller than x.
+     */
+    public int rank( AnyType x )
+    {
+        return countBelow( x, false );
+    }
+
+    /**
+     * Find the item with a given rank, in O(log N).
+     * @param k the rank, from 0 (smallest) to size( ) - 1 (largest).
+     * @return the item with exactly k smaller items.
+     * @throws IndexOutOfBoundsException if k is out of range.
+     */
+    public AnyType select( int k )
+    {
+        if( k < 0 || k >= size( ) )
+            throw new IndexOutOfBoundsException( "rank " + k + ", size " + size( ) );
+        AvlNode<AnyType> t = root;
+        while( true )
+        {
+            int leftSize = size( t.left );
+            if( k < leftSize )
+                t = t.left;
+            else if( k > leftSize )
+            {
+                k -= leftSize + 1;
+                t = t.right;
+            }
+            else
+                return t.element;
+        }
+    }
+
+    /**
+     * Count the items between two bounds, in O(log N).
+     * @param lo the smallest item to count.
+     * @param hi the largest item to count.
+     * @return the number of items x with lo <= x <= hi.
+     */
+    public int countBetween( AnyType lo, AnyType hi )
+    {
+        if( lo.compareTo( hi ) > 0 )
+            return 0;
+        return countBelow( hi, true ) - countBelow( lo, false );
+    }
+
+    /**
+     * Internal method to count the items smaller than x, or not larger
+     * than x if inclusive.
+     */
+    private int countBelow( AnyType x, boolean inclusive )
+    {
+        int count = 0;
+        AvlNode<AnyType> t = root;
+        while( t != null )
+        {
+            int compareResult = x.compareTo( t.element );
+
+            if( compareResult < 0 )
+                t = t.left;
+            else if( compareResult > 0 )
+            {
+                count += size( t.left ) + 1;
+                t = t.right;
+            }
+            else
+                return count + size( t.left ) + ( inclusive ? 1 : 0 );
+        }
+        return count;
+    }
+
+    /**
+     * Return an iterator over the items in sorted order. It keeps an
+     * explicit stack of at most height + 1 nodes, so it neither recurses
+     * nor copies the tree. The tree must not be changed while iterating.
+     */
+    public Iterator<AnyType> iterator( )
+    {
+        return Spliterators.iterator( spliterator( ) );
+    }
+
+    /**
+     * Return a spliterator over the items in sorted order. It splits by
+     * rank into halves of exactly known size, so parallel streams divide
+     * the work evenly. The tree must not be changed while traversing.
+     */
+    public Spliterator<AnyType> spliterator( )
+    {
+        return new RankSpliterator( 0, size( ) );
+    }
+
+    /**
+     * Return a spliterator over the items x with lo <= x <= hi, in sorted
+     * order. Finding the bounds costs O(log N); items are then produced
+     * lazily, starting from lo without visiting anything before it.
+     * @param lo the smallest item to include.
+     * @param hi the largest item to include.
+     */
+    public Spliterator<AnyType> range( AnyType lo, AnyType hi )
+    {
+        if( lo.compareTo( hi ) > 0 )
+            return Spliterators.emptySpliterator( );
+        return new RankSpliterator( countBelow( lo, false ), countBelow( hi, true ) );
+    }
+
+    /**
+     * Traversal of the items with rank index .. fence - 1. The path from
+     * the root to the next item is kept in stack: every entry is a node
+     * whose item (and right subtree) is still to come. The path is built
+     * on the first advance, by the same descent select uses.
+     */
+    private class RankSpliterator implements Spliterator<AnyType>
+    {
+        private int index;      // rank of the next item
+        private int fence;      // one past the rank of the last item
+        private AvlNode<AnyType> [ ] stack;
+        private int depth = -1; // -1 until the path has been built
+
+        RankSpliterator( int from, int to )
+        {
+            index = from;
+            fence = to;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private void seek( )
+        {
+            if( stack == null )
+                stack = (AvlNode<AnyType> [ ]) new AvlNode<?>[ height( root ) + 2 ];
+            depth = 0;
+            int k = index;
+            AvlNode<AnyType> t = root;
+            while( t != null )
+            {
+                int leftSize = size( t.left );
+                if( k < leftSize )
+                {
+                    stack[ depth++ ] = t;
+                    t = t.left;
+                }
+                else if( k > leftSize )
+                {
+                    k -= leftSize + 1;
+                    t = t.right;
+                }
+                else
+                {
+                    stack[ depth++ ] = t;
+                    break;
+                }
+            }
+        }
+
+        private AnyType next( )
+        {
+            AvlNode<AnyType> t = stack[ --depth ];
+            AnyType x = t.element;
+            for( t = t.right; t != null; t = t.left )
+                stack[ depth++ ] = t;
+            index++;
+            return x;
+        }
+
+        public boolean tryAdvance( Consumer<? super AnyType> action )
+        {
+            if( index >= fence )
+                return false;
+            if( depth < 0 )
+                seek( );
+            action.accept( next( ) );
+            return true;
+        }
+
+        public void forEachRemaining( Consumer<? super AnyType> action )
+        {
+            if( index >= fence )
+                return;
+            if( depth < 0 )
+                seek( );
+            while( index < fence )
+                action.accept( next( ) );
+        }
+
+        public Spliterator<AnyType> trySplit( )
+        {
+            int mid = ( index + fence ) >>> 1;
+            if( mid <= index )
+                return null;
+            // the prefix goes to the new spliterator; this one restarts at mid
+            Spliterator<AnyType> prefix = new RankSpliterator( index, mid );
+            index = mid;
+            depth = -1;
+            return prefix;
+        }
+
+        public long estimateSize( )
+        {
+            return fence - index;
+        }
+
+        public int characteristics( )
+        {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        public Comparator<? super AnyType> getComparator( )
+        {
+            return null;    // Natural order
+        }
     }
 
     /**
@@ -141,6 +431,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
     public void makeEmpty( )
     {
         root = null;
+        if( bloom != null )
+            bloom.clear( );
     }
 
     /**
@@ -184,9 +476,457 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
                 t = doubleWithRightChild( t );
 
         t.height = Math.max( height( t.left ), height( t.right ) ) + 1;
+        t.size = size( t.left ) + size( t.right ) + 1;
         return t;
     }
     
+    /**
+     * Build a tree from items in ascending order in linear time, without
+     * a single comparison-driven insert or rotation. Equal neighbours
+     * are stored once, as insert would.
+     * @param items the items, in ascending order.
+     * @return a height-balanced tree holding the items.
+     * @throws IllegalArgumentException if items are out of order.
+     */
+    public static <AnyType extends Comparable<? super AnyType>>
+    AvlTree<AnyType> fromSorted( AnyType [ ] items )
+    {
+        return fromSorted( Arrays.asList( items ).iterator( ) );
+    }
+
+    /**
+     * Build a tree from an iterator over items in ascending order.
+     * @param items the items, in ascending order.
+     * @return a height-balanced tree holding the items.
+     * @throws IllegalArgumentException if items are out of order.
+     */
+    public static <AnyType extends Comparable<? super AnyType>>
+    AvlTree<AnyType> fromSorted( Iterator<? extends AnyType> items )
+    {
+        ArrayList<AnyType> sorted = sortedDistinct( items, null );
+        AvlTree<AnyType> t = new AvlTree<AnyType>( );
+        t.root = buildSorted( sorted, 0, sorted.size( ) - 1 );
+        return t;
+    }
+
+    /**
+     * Add items in ascending order that are all larger than the current
+     * largest item. The batch is built into a balanced tree in linear time
+     * and joined to the existing tree along its right spine, so the cost
+     * is O(M + log N) instead of M separate inserts.
+     * @param items the items, in ascending order.
+     * @throws IllegalArgumentException if items are out of order or
+     *         smaller than findMax( ). Items equal to it are ignored.
+     */
+    public void appendSorted( AnyType [ ] items )
+    {
+        appendSorted( Arrays.asList( items ).iterator( ) );
+    }
+
+    /**
+     * Add items from an iterator; see appendSorted( AnyType [ ] ).
+     */
+    public void appendSorted( Iterator<? extends AnyType> items )
+    {
+        AnyType max = isEmpty( ) ? null : findMax( root ).element;
+        ArrayList<AnyType> sorted = sortedDistinct( items, max );
+        if( sorted.isEmpty( ) )
+            return;
+        if( bloom != null )
+            for( AnyType x : sorted )
+                bloom.add( x.hashCode( ) );
+        AvlNode<AnyType> pivot = new AvlNode<AnyType>( sorted.get( 0 ) );
+        root = join( root, pivot, buildSorted( sorted, 1, sorted.size( ) - 1 ) );
+    }
+
+    /**
+     * Copy items into a list, dropping equal neighbours and checking the
+     * order.
+     * @param after every item must be at least this, unless null;
+     *        items equal to it are dropped too.
+     */
+    private static <AnyType extends Comparable<? super AnyType>>
+    ArrayList<AnyType> sortedDistinct( Iterator<? extends AnyType> items, AnyType after )
+    {
+        ArrayList<AnyType> sorted = new ArrayList<AnyType>( );
+        AnyType previous = after;
+        while( items.hasNext( ) )
+        {
+            AnyType x = items.next( );
+            if( previous != null )
+            {
+                int compareResult = x.compareTo( previous );
+                if( compareResult < 0 )
+                    throw new IllegalArgumentException( x + " is out of order after " + previous );
+                if( compareResult == 0 )
+                    continue;   // Duplicate; store once
+            }
+            sorted.add( x );
+            previous = x;
+        }
+        return sorted;
+    }
+
+    /**
+     * Internal method to build a perfectly balanced subtree from
+     * sorted.get( lo .. hi ).
+     * @return the root of the subtree, or null if lo > hi.
+     */
+    private static <AnyType> AvlNode<AnyType> buildSorted( ArrayList<AnyType> sorted, int lo, int hi )
+    {
+        if( lo > hi )
+            return null;
+        int mid = ( lo + hi ) >>> 1;
+        AvlNode<AnyType> t = new AvlNode<AnyType>( sorted.get( mid ) );
+        t.left = buildSorted( sorted, lo, mid - 1 );
+        t.right = buildSorted( sorted, mid + 1, hi );
+        t.height = Math.max( t.left == null ? -1 : t.left.height,
+                             t.right == null ? -1 : t.right.height ) + 1;
+        t.size = hi - lo + 1;
+        return t;
+    }
+
+    /**
+     * Internal method to join two subtrees around a middle node:
+     * every item in l is smaller than k.element and every item in r is
+     * larger. Walks down the spine of the taller tree until the heights
+     * are within one and rebalances on the way back up, as insert does.
+     * @return the root of the joined tree.
+     */
+    private AvlNode<AnyType> join( AvlNode<AnyType> l, AvlNode<AnyType> k, AvlNode<AnyType> r )
+    {
+        if( height( l ) > height( r ) + ALLOWED_IMBALANCE )
+        {
+            l.right = join( l.right, k, r );
+            return balance( l );
+        }
+        if( height( r ) > height( l ) + ALLOWED_IMBALANCE )
+        {
+            r.left = join( l, k, r.left );
+            return balance( r );
+        }
+        k.left = l;
+        k.right = r;
+        return balance( k );
+    }
+
+    /**
+     * Join this tree, k and right into this tree, in O(log N). Every item
+     * of this tree must be smaller than k and every item of right larger.
+     * right is left empty.
+     * @throws IllegalArgumentException if the items are not in that order.
+     */
+    public void join( AnyType k, AvlTree<AnyType> right )
+    {
+        if( right == this || !isEmpty( ) && findMax( root ).element.compareTo( k ) >= 0 ||
+                !right.isEmpty( ) && findMin( right.root ).element.compareTo( k ) <= 0 )
+            throw new IllegalArgumentException( "join needs this < " + k + " < right" );
+        addToBloomFilter( right.root );
+        if( bloom != null )
+            bloom.add( k.hashCode( ) );
+        root = join( root, new AvlNode<AnyType>( k ), right.root );
+        right.makeEmpty( );
+    }
+
+    /**
+     * Split the tree at x, in O(log N): this tree keeps the items that are
+     * not larger than x and the items larger than x are moved to the tree
+     * returned.
+     * @param x the item to split at; it need not be in the tree.
+     * @return a tree of the items larger than x.
+     */
+    public AvlTree<AnyType> split( AnyType x )
+    {
+        Split<AnyType> s = split( root, x );
+        root = ( s.match == null ) ? s.left : join( s.left, s.match, null );
+        AvlTree<AnyType> larger = new AvlTree<AnyType>( );
+        larger.root = s.right;
+        return larger;
+    }
+
+    /**
+     * Add every item of other to this tree. Both trees are split and
+     * joined rather than inserted into, for O(M log(N/M + 1)) work with
+     * M <= N the smaller size, and the halves run as fork/join tasks.
+     * other is left empty; its nodes are reused.
+     */
+    public void union( AvlTree<AnyType> other )
+    {
+        if( other == this )
+            return;
+        addToBloomFilter( other.root );
+        root = ForkJoinPool.commonPool( ).invoke( new SetOperation( UNION, root, other.root ) );
+        other.makeEmpty( );
+    }
+
+    /**
+     * Keep only the items that are also in other; see union.
+     * other is left empty.
+     */
+    public void intersection( AvlTree<AnyType> other )
+    {
+        if( other == this )
+            return;
+        root = ForkJoinPool.commonPool( ).invoke( new SetOperation( INTERSECTION, root, other.root ) );
+        other.makeEmpty( );
+    }
+
+    /**
+     * Remove every item that is in other; see union.
+     * other is left empty.
+     */
+    public void difference( AvlTree<AnyType> other )
+    {
+        if( other == this )
+        {
+            makeEmpty( );
+            return;
+        }
+        root = ForkJoinPool.commonPool( ).invoke( new SetOperation( DIFFERENCE, root, other.root ) );
+        other.makeEmpty( );
+    }
+
+    private void addToBloomFilter( AvlNode<AnyType> t )
+    {
+        if( bloom != null )
+            addToFilter( bloom, t );
+    }
+
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+
+    // Below this many nodes in both inputs a set operation runs in the
+    // current thread instead of forking.
+    private static final int PARALLEL_GRAIN = 8192;
+
+    /**
+     * A set operation on two subtrees. The root of one tree splits the
+     * other; the two pairs of halves are independent, so one of them is
+     * forked while this thread does the other, and the results are joined.
+     * Both input subtrees are taken apart.
+     */
+    private class SetOperation extends RecursiveTask<AvlNode<AnyType>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int op;
+        private final AvlNode<AnyType> t1;
+        private final AvlNode<AnyType> t2;
+
+        SetOperation( int op, AvlNode<AnyType> t1, AvlNode<AnyType> t2 )
+        {
+            this.op = op;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        protected AvlNode<AnyType> compute( )
+        {
+            return run( op, t1, t2, size( t1 ) + size( t2 ) >= PARALLEL_GRAIN );
+        }
+    }
+
+    /**
+     * Internal method for union, intersection and difference of subtrees.
+     * @param parallel whether the halves may run as separate tasks.
+     * @return the root of the result.
+     */
+    private AvlNode<AnyType> run( int op, AvlNode<AnyType> t1, AvlNode<AnyType> t2, boolean parallel )
+    {
+        if( t1 == null )
+            return op == UNION ? t2 : null;
+        if( t2 == null )
+            return op == INTERSECTION ? null : t1;
+
+        // the result is op( leftA, leftB ) + pivot + op( rightA, rightB )
+        AvlNode<AnyType> leftA, leftB, rightA, rightB, pivot;
+        if( op == DIFFERENCE )
+        {
+            // split the tree being kept by the root of the one removed
+            Split<AnyType> s = split( t1, t2.element );
+            leftA = s.left;
+            leftB = t2.left;
+            rightA = s.right;
+            rightB = t2.right;
+            pivot = null;
+        }
+        else
+        {
+            Split<AnyType> s = split( t2, t1.element );
+            leftA = t1.left;
+            leftB = s.left;
+            rightA = t1.right;
+            rightB = s.right;
+            pivot = ( op == UNION || s.match != null ) ? t1 : null;
+        }
+
+        AvlNode<AnyType> left, right;
+        if( parallel )
+        {
+            SetOperation leftTask = new SetOperation( op, leftA, leftB );
+            leftTask.fork( );
+            right = new SetOperation( op, rightA, rightB ).compute( );
+            left = leftTask.join( );
+        }
+        else
+        {
+            left = run( op, leftA, leftB, false );
+            right = run( op, rightA, rightB, false );
+        }
+        return pivot != null ? join( left, pivot, right ) : join2( left, right );
+    }
+
+    /**
+     * Result of splitting a subtree at x: the items smaller than x, the
+     * node holding x (or null) and the items larger than x.
+     */
+    private static final class Split<AnyType>
+    {
+        AvlNode<AnyType> left;
+        AvlNode<AnyType> match;
+        AvlNode<AnyType> right;
+    }
+
+    /**
+     * Internal method to split a subtree at x, in O(log N). The subtree is
+     * taken apart: its nodes end up in the two halves or in match.
+     */
+    private Split<AnyType> split( AvlNode<AnyType> t, AnyType x )
+    {
+        if( t == null )
+            return new Split<AnyType>( );
+
+        AvlNode<AnyType> lt = t.left;
+        AvlNode<AnyType> rt = t.right;
+        int compareResult = x.compareTo( t.element );
+
+        if( compareResult < 0 )
+        {
+            Split<AnyType> s = split( lt, x );
+            s.right = join( s.right, t, rt );
+            return s;
+        }
+        else if( compareResult > 0 )
+        {
+            Split<AnyType> s = split( rt, x );
+            s.left = join( lt, t, s.left );
+            return s;
+        }
+        Split<AnyType> s = new Split<AnyType>( );
+        s.left = lt;
+        s.right = rt;
+        s.match = t;
+        t.left = t.right = null;
+        return s;
+    }
+
+    /**
+     * Internal method to join two subtrees without a middle item: every
+     * item in l must be smaller than every item in r. The largest node of
+     * l is taken out and used as the middle node.
+     */
+    private AvlNode<AnyType> join2( AvlNode<AnyType> l, AvlNode<AnyType> r )
+    {
+        if( l == null )
+            return r;
+        if( r == null )
+            return l;
+        AvlNode<AnyType> max = findMax( l );
+        l = removeMax( l );
+        return join( l, max, r );
+    }
+
+    /**
+     * Internal method to unlink the largest node of a subtree.
+     * @return the new root of the subtree.
+     */
+    private AvlNode<AnyType> removeMax( AvlNode<AnyType> t )
+    {
+        if( t.right == null )
+            return t.left;
+        t.right = removeMax( t.right );
+        return balance( t );
+    }
+
+    private static final int SERIAL_MAGIC = 0x41564C31;    // "AVL1"
+    private static final int SERIAL_BUFFER = 1 << 16;
+
+    /**
+     * Write the items in ascending order: a header with the item count,
+     * then each item encoded by codec relative to the one before it.
+     * The stream is flushed but not closed.
+     * @param out the stream to write to.
+     * @param codec the encoding of the items, e.g. KeyCodec.INTEGER.
+     */
+    public void writeTo( OutputStream out, KeyCodec<? super AnyType> codec ) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out, SERIAL_BUFFER ) );
+        data.writeInt( SERIAL_MAGIC );
+        data.writeInt( size( ) );
+        AnyType previous = null;
+        for( AnyType x : this )
+        {
+            codec.write( x, previous, data );
+            previous = x;
+        }
+        data.flush( );
+    }
+
+    /**
+     * Write the items to a channel at its current position; see
+     * writeTo( OutputStream, KeyCodec ). The channel is not closed.
+     */
+    public void writeTo( FileChannel channel, KeyCodec<? super AnyType> codec ) throws IOException
+    {
+        writeTo( Channels.newOutputStream( channel ), codec );
+    }
+
+    /**
+     * Read a tree written by writeTo. The items arrive sorted, so the tree
+     * is built directly in linear time without a single rotation.
+     * @param in the stream to read from; it is not closed, and unless it is
+     *        a BufferedInputStream it may be read past the end of the tree.
+     * @param codec the encoding used when writing.
+     * @throws IOException if the data is truncated or not in order.
+     */
+    public static <AnyType extends Comparable<? super AnyType>>
+    AvlTree<AnyType> readFrom( InputStream in, KeyCodec<AnyType> codec ) throws IOException
+    {
+        DataInputStream data = new DataInputStream( in instanceof BufferedInputStream ? in
+                : new BufferedInputStream( in, SERIAL_BUFFER ) );
+        if( data.readInt( ) != SERIAL_MAGIC )
+            throw new IOException( "not an AvlTree stream" );
+        int n = data.readInt( );
+        if( n < 0 )
+            throw new IOException( "bad item count " + n );
+
+        ArrayList<AnyType> sorted = new ArrayList<AnyType>( n );
+        AnyType previous = null;
+        for( int i = 0; i < n; i++ )
+        {
+            AnyType x = codec.read( previous, data );
+            if( previous != null && x.compareTo( previous ) <= 0 )
+                throw new IOException( "items out of order at " + i );
+            sorted.add( x );
+            previous = x;
+        }
+        AvlTree<AnyType> t = new AvlTree<AnyType>( );
+        t.root = buildSorted( sorted, 0, n - 1 );
+        return t;
+    }
+
+    /**
+     * Read a tree written by writeTo from a channel, starting at its
+     * current position. The channel is not closed, and its position may
+     * end up past the end of the tree.
+     */
+    public static <AnyType extends Comparable<? super AnyType>>
+    AvlTree<AnyType> readFrom( FileChannel channel, KeyCodec<AnyType> codec ) throws IOException
+    {
+        return readFrom( Channels.newInputStream( channel ), codec );
+    }
+
     public void checkBalance( )
     {
         checkBalance( root );
@@ -285,6 +1025,20 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
         return false;   // No match
     }
 
+    /**
+     * Internal method to add every item of a subtree to a filter.
+     * @param t the node that roots the subtree.
+     */
+    private void addToFilter( BlockedBloomFilter filter, AvlNode<AnyType> t )
+    {
+        while( t != null )
+        {
+            addToFilter( filter, t.left );
+            filter.add( t.element.hashCode( ) );
+            t = t.right;
+        }
+    }
+
     /**
      * Internal method to print a subtree in sorted order.
      * @param t the node that roots the tree.
@@ -299,6 +1053,14 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
         }
     }
 
+    /**
+     * Return the number of items in subtree t, or 0, if null.
+     */
+    private static int size( AvlNode<?> t )
+    {
+        return t == null ? 0 : t.size;
+    }
+
     /**
      * Return the height of node t, or -1, if null.
      */
@@ -319,6 +1081,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
         k1.right = k2;
         k2.height = Math.max( height( k2.left ), height( k2.right ) ) + 1;
         k1.height = Math.max( height( k1.left ), k2.height ) + 1;
+        k2.size = size( k2.left ) + size( k2.right ) + 1;
+        k1.size = size( k1.left ) + k2.size + 1;
         return k1;
     }
 
@@ -334,6 +1098,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
         k2.left = k1;
         k1.height = Math.max( height( k1.left ), height( k1.right ) ) + 1;
         k2.height = Math.max( height( k2.right ), k1.height ) + 1;
+        k1.size = size( k1.left ) + size( k1.right ) + 1;
+        k2.size = size( k2.right ) + k1.size + 1;
         return k2;
     }
 
@@ -375,17 +1141,22 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
             left     = lt;
             right    = rt;
             height   = 0;
+            size     = 1;
         }
 
         AnyType           element;      // The data in the node
         AvlNode<AnyType>  left;         // Left child
         AvlNode<AnyType>  right;        // Right child
         int               height;       // Height
+        int               size;         // Number of nodes in this subtree
     }
 
       /** The tree root. */
     private AvlNode<AnyType> root;
 
+      /** Optional filter in front of contains. */
+    private BlockedBloomFilter bloom;
+
 
         // Test program
     public static void main( String [ ] args )
@@ -422,5 +1193,59 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>>
 		
 		System.out.println("\nThe time taken by Find " + (System.nanoTime() - startTime) + " nanoseconds.");
 
+        Integer [ ] sorted = new Integer[ NUMS / 2 ];
+        for( int i = 0; i < sorted.length; i++ )
+            sorted[ i ] = i;
+		startTime = System.nanoTime();
+        AvlTree<Integer> bulk = AvlTree.fromSorted( sorted );
+        for( int i = 0; i < sorted.length; i++ )
+            sorted[ i ] = NUMS / 2 + i;
+        bulk.appendSorted( sorted );
+		System.out.println("\nTime Taken by fromSorted + appendSorted " + (System.nanoTime() - startTime) + " nanoseconds.");
+        if( bulk.findMin( ) != 0 || bulk.findMax( ) != NUMS - 1 || !bulk.contains( NUMS / 2 ) )
+            System.out.println( "Bulk load error!" );
+
+        Integer [ ] evens = new Integer[ NUMS / 2 ];
+        Integer [ ] odds = new Integer[ NUMS / 2 ];
+        for( int i = 0; i < NUMS / 2; i++ )
+        {
+            evens[ i ] = 2 * i;
+            odds[ i ] = 2 * i + 1;
+        }
+        AvlTree<Integer> merged = AvlTree.fromSorted( evens );
+        AvlTree<Integer> other = AvlTree.fromSorted( odds );
+		startTime = System.nanoTime();
+        merged.union( other );
+		System.out.println("\nTime Taken by union " + (System.nanoTime() - startTime) + " nanoseconds.");
+        if( merged.size( ) != NUMS || !merged.contains( NUMS - 1 ) || !other.isEmpty( ) )
+            System.out.println( "Union error!" );
+        merged = other = null;
+        evens = odds = null;
+
+        try
+        {
+            java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream( );
+            t.writeTo( bytes, KeyCodec.INTEGER );
+            startTime = System.nanoTime();
+            AvlTree<Integer> reloaded = AvlTree.readFrom(
+                    new java.io.ByteArrayInputStream( bytes.toByteArray( ) ), KeyCodec.INTEGER );
+            System.out.println("\nTime Taken by readFrom of " + bytes.size( ) + " bytes " + (System.nanoTime() - startTime) + " nanoseconds.");
+            if( reloaded.size( ) != t.size( ) || !reloaded.findMax( ).equals( t.findMax( ) ) )
+                System.out.println( "Reload error!" );
+        }
+        catch( IOException e )
+        {
+            System.out.println( "Reload error! " + e );
+        }
+
+        t.enableBloomFilter( NUMS, 0.01 );
+		startTime = System.nanoTime();
+        if(!t.contains( NUMS ))
+		{
+			System.out.println( "item not found" );
+		}
+		System.out.println("\nThe time taken by Find with Bloom filter " + (System.nanoTime() - startTime) + " nanoseconds.");
+        System.out.println( t.getBloomFilter( ) );
+
     }
 }
@@ -0,0 +1,730 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of a disk-backed B+ Tree
+ *  Description: This Problem measures running time for Insertion, Search, range scans
+ *               and Deletion in a B+ Tree of int keys whose pages live in a
+ *               memory-mapped file, so the set can be much larger than the heap.
+ *
+ *  Input: Number of keys, page size
+ *  Output: running times to insert, find, scan and remove keys; height and pages used
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * BPlusTree( file, pageSize ) --> Open the tree in file, or create it with pageSize-byte pages
+ * boolean insert( x )    --> Insert x; false if already present
+ * boolean remove( x )    --> Remove x; false if not present
+ * boolean contains( x )  --> Return true if x is present
+ * int findMin( )         --> Return smallest item
+ * int findMax( )         --> Return largest item
+ * void range( lo, hi, action ) --> Pass every item in [lo, hi] to action in order
+ * long size( )           --> Return number of items
+ * boolean isEmpty( )     --> Return true if empty; else false
+ * int height( )          --> Return number of levels above the leaves
+ * void makeEmpty( )      --> Remove all items
+ * void sync( )           --> Force all pages to disk
+ * void close( )          --> Sync and close the file
+ *
+ *   Remarks
+ *   -------
+ * The file is an array of fixed-size pages. Page 0 is the header (root page,
+ * page count, free list, height, size). Leaves hold up to (pageSize-16)/4
+ * sorted keys and link to their neighbours, so a range scan walks leaves
+ * without going back up the tree. Internal pages hold up to (pageSize-12)/8
+ * separator keys; child i holds the keys in [key i-1, key i). With 4 KB pages
+ * (one OS page) a leaf holds 1020 keys and an internal page 510 children, so
+ * 100 million keys need three levels above the leaves, and only the top two
+ * of those are touched often enough to stay in memory. Smaller pages, down
+ * to a few cache lines, make each page search cheaper at the cost of height.
+ *
+ * The file is mapped in 64 MB segments as it grows; pages are read and
+ * written in place through the mappings, so the OS page cache is the buffer
+ * pool. Pages are not merged when they get underfull: a leaf that becomes
+ * empty is unlinked and put on the free list, an internal page left with no
+ * children goes the same way, and a root left with one child is replaced by
+ * that child. Freed pages are reused before the file grows.
+ *
+ * Changes are not crash-safe: a crash in the middle of a split can leave the
+ * file inconsistent. sync and close force the mapped pages to disk.
+ *************************************************************************/
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.function.IntConsumer;
+
+public class BPlusTree implements Closeable
+{
+    private static final int MAGIC = 0x42505431;    // "BPT1"
+    private static final int DEFAULT_PAGE_SIZE = 4096;
+    private static final int SEGMENT_BYTES = 1 << 26;
+    private static final int MAX_HEIGHT = 64;
+
+        // Header page fields
+    private static final int H_MAGIC = 0;
+    private static final int H_PAGE_SIZE = 4;
+    private static final int H_ROOT = 8;
+    private static final int H_PAGE_COUNT = 12;
+    private static final int H_FREE = 16;
+    private static final int H_HEIGHT = 20;
+    private static final int H_SIZE = 24;   // long
+    private static final int HEADER_BYTES = 32;
+
+        // Fields common to all pages
+    private static final int TYPE = 0;
+    private static final int COUNT = 4;     // keys in the page; next free page if free
+    private static final int LEAF = 1;
+    private static final int INTERNAL = 2;
+    private static final int FREE = 3;
+
+        // Leaf fields
+    private static final int PREV = 8;
+    private static final int NEXT = 12;
+    private static final int LEAF_KEYS = 16;
+
+        // Internal page fields
+    private static final int CHILDREN = 8;
+
+    private final FileChannel channel;
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>( );
+    private final int pageSize;
+    private final int pageShift;            // log2( pageSize )
+    private final int segmentShift;         // log2( pages per segment )
+    private final int leafCapacity;
+    private final int internalCapacity;
+    private final int internalKeys;         // offset of the keys in an internal page
+
+    private int root;
+    private int pageCount;
+    private int freeHead;
+    private int height;                     // 0 when the root is a leaf
+    private long size;
+
+        // Pages and child indexes from the root to the current leaf
+    private final int [ ] pathPage = new int[ MAX_HEIGHT ];
+    private final int [ ] pathIndex = new int[ MAX_HEIGHT ];
+
+    /**
+     * Open the tree stored in file, or create it with 4 KB pages.
+     */
+    public BPlusTree( Path file ) throws IOException
+    {
+        this( file, DEFAULT_PAGE_SIZE );
+    }
+
+    /**
+     * Open the tree stored in file, or create it.
+     * @param pageSize bytes per page for a new file: a power of two from 64
+     * to 1 MB. An existing file keeps the page size it was created with.
+     */
+    public BPlusTree( Path file, int pageSize ) throws IOException
+    {
+        channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                                    StandardOpenOption.READ, StandardOpenOption.WRITE );
+        boolean exists = channel.size( ) >= HEADER_BYTES;
+        if( exists )
+        {
+            ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+            while( header.hasRemaining( ) && channel.read( header, header.position( ) ) > 0 )
+                ;
+            if( header.getInt( H_MAGIC ) != MAGIC )
+            {
+                channel.close( );
+                throw new IOException( file + " is not a B+ tree file" );
+            }
+            pageSize = header.getInt( H_PAGE_SIZE );
+        }
+        if( pageSize < 64 || pageSize > ( 1 << 20 ) || Integer.bitCount( pageSize ) != 1 )
+        {
+            channel.close( );
+            throw new IllegalArgumentException( "page size must be a power of two from 64 to 1 MB: " + pageSize );
+        }
+
+        this.pageSize = pageSize;
+        pageShift = Integer.numberOfTrailingZeros( pageSize );
+        segmentShift = Integer.numberOfTrailingZeros( SEGMENT_BYTES ) - pageShift;
+        leafCapacity = ( pageSize - LEAF_KEYS ) / 4;
+        internalCapacity = ( pageSize - CHILDREN - 4 ) / 8;
+        internalKeys = CHILDREN + 4 * ( internalCapacity + 1 );
+
+        map( 0 );
+        if( exists )
+        {
+            ByteBuffer h = segments.get( 0 );
+            root = h.getInt( H_ROOT );
+            pageCount = h.getInt( H_PAGE_COUNT );
+            freeHead = h.getInt( H_FREE );
+            height = h.getInt( H_HEIGHT );
+            size = h.getLong( H_SIZE );
+            map( pageCount - 1 );
+        }
+        else
+        {
+            ByteBuffer h = segments.get( 0 );
+            h.putInt( H_MAGIC, MAGIC );
+            h.putInt( H_PAGE_SIZE, pageSize );
+            pageCount = 1;
+            root = newLeaf( );
+            writeHeader( );
+        }
+    }
+
+    /**
+     * Internal method to map every segment up to the one holding page.
+     */
+    private void map( int page ) throws IOException
+    {
+        int segment = page >>> segmentShift;
+        while( segments.size( ) <= segment )
+        {
+            MappedByteBuffer b = channel.map( FileChannel.MapMode.READ_WRITE,
+                                              (long) segments.size( ) * SEGMENT_BYTES, SEGMENT_BYTES );
+            b.order( ByteOrder.LITTLE_ENDIAN );
+            segments.add( b );
+        }
+    }
+
+    private ByteBuffer buffer( int page )
+    {
+        return segments.get( page >>> segmentShift );
+    }
+
+    private int base( int page )
+    {
+        return ( page & ( ( 1 << segmentShift ) - 1 ) ) << pageShift;
+    }
+
+    private void writeHeader( )
+    {
+        ByteBuffer h = segments.get( 0 );
+        h.putInt( H_ROOT, root );
+        h.putInt( H_PAGE_COUNT, pageCount );
+        h.putInt( H_FREE, freeHead );
+        h.putInt( H_HEIGHT, height );
+        h.putLong( H_SIZE, size );
+    }
+
+    /**
+     * Internal method to take a page from the free list, or add one to the file.
+     */
+    private int allocate( int type ) throws IOException
+    {
+        int page;
+        if( freeHead != 0 )
+        {
+            page = freeHead;
+            freeHead = buffer( page ).getInt( base( page ) + COUNT );
+        }
+        else
+        {
+            page = pageCount++;
+            map( page );
+        }
+        ByteBuffer b = buffer( page );
+        int p = base( page );
+        b.putInt( p + TYPE, type );
+        b.putInt( p + COUNT, 0 );
+        return page;
+    }
+
+    private int newLeaf( ) throws IOException
+    {
+        int page = allocate( LEAF );
+        ByteBuffer b = buffer( page );
+        b.putInt( base( page ) + PREV, 0 );
+        b.putInt( base( page ) + NEXT, 0 );
+        return page;
+    }
+
+    private void free( int page )
+    {
+        ByteBuffer b = buffer( page );
+        b.putInt( base( page ) + TYPE, FREE );
+        b.putInt( base( page ) + COUNT, freeHead );
+        freeHead = page;
+    }
+
+    /**
+     * Internal method to search count sorted keys starting at offset off.
+     * @return the index of x, or -( insertion point ) - 1.
+     */
+    private static int search( ByteBuffer b, int off, int count, int x )
+    {
+        int low = 0, high = count - 1;
+        while( low <= high )
+        {
+            int mid = ( low + high ) >>> 1;
+            int k = b.getInt( off + 4 * mid );
+            if( k < x )
+                low = mid + 1;
+            else if( k > x )
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -( low + 1 );
+    }
+
+    /**
+     * Internal method to walk from the root to the leaf that would hold x,
+     * recording the path.
+     * @return the leaf.
+     */
+    private int descend( int x )
+    {
+        int page = root;
+        for( int level = 0; level < height; level++ )
+        {
+            ByteBuffer b = buffer( page );
+            int p = base( page );
+            int i = search( b, p + internalKeys, b.getInt( p + COUNT ), x );
+            i = ( i >= 0 ) ? i + 1 : -i - 1;    // keys equal to a separator go right
+            pathPage[ level ] = page;
+            pathIndex[ level ] = i;
+            page = b.getInt( p + CHILDREN + 4 * i );
+        }
+        return page;
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( int x )
+    {
+        int leaf = descend( x );
+        ByteBuffer b = buffer( leaf );
+        int p = base( leaf );
+        return search( b, p + LEAF_KEYS, b.getInt( p + COUNT ), x ) >= 0;
+    }
+
+    /**
+     * Insert into the tree.
+     * @param x the item to insert.
+     * @return false if x was already present.
+     */
+    public boolean insert( int x ) throws IOException
+    {
+        int leaf = descend( x );
+        ByteBuffer b = buffer( leaf );
+        int p = base( leaf );
+        int count = b.getInt( p + COUNT );
+        int i = search( b, p + LEAF_KEYS, count, x );
+        if( i >= 0 )
+            return false;   // Duplicate; do nothing
+        i = -i - 1;
+
+        if( count < leafCapacity )
+        {
+            for( int j = count; j > i; j-- )
+                b.putInt( p + LEAF_KEYS + 4 * j, b.getInt( p + LEAF_KEYS + 4 * ( j - 1 ) ) );
+            b.putInt( p + LEAF_KEYS + 4 * i, x );
+            b.putInt( p + COUNT, count + 1 );
+        }
+        else
+            splitLeaf( leaf, i, x );
+        size++;
+        writeHeader( );
+        return true;
+    }
+
+    /**
+     * Internal method to split a full leaf while adding x at index i, and
+     * add the new right leaf to the parent.
+     */
+    private void splitLeaf( int leaf, int i, int x ) throws IOException
+    {
+        int [ ] keys = new int[ leafCapacity + 1 ];
+        ByteBuffer b = buffer( leaf );
+        int p = base( leaf );
+        for( int j = 0, k = 0; j <= leafCapacity; j++ )
+            keys[ j ] = ( j == i ) ? x : b.getInt( p + LEAF_KEYS + 4 * k++ );
+
+        int right = newLeaf( );
+        b = buffer( leaf );     // newLeaf may have mapped a new segment
+        ByteBuffer rb = buffer( right );
+        int rp = base( right );
+        int leftCount = ( leafCapacity + 1 ) / 2;
+        for( int j = 0; j < leftCount; j++ )
+            b.putInt( p + LEAF_KEYS + 4 * j, keys[ j ] );
+        for( int j = leftCount; j <= leafCapacity; j++ )
+            rb.putInt( rp + LEAF_KEYS + 4 * ( j - leftCount ), keys[ j ] );
+        b.putInt( p + COUNT, leftCount );
+        rb.putInt( rp + COUNT, leafCapacity + 1 - leftCount );
+
+        int next = b.getInt( p + NEXT );
+        rb.putInt( rp + PREV, leaf );
+        rb.putInt( rp + NEXT, next );
+        b.putInt( p + NEXT, right );
+        if( next != 0 )
+            buffer( next ).putInt( base( next ) + PREV, right );
+
+        insertInParent( height - 1, leaf, keys[ leftCount ], right );
+    }
+
+    /**
+     * Internal method to add separator key and the page right of it to the
+     * internal page at path level, splitting upward as needed.
+     * @param left the page that was split, for a new root.
+     */
+    private void insertInParent( int level, int left, int key, int right ) throws IOException
+    {
+        if( level < 0 )     // the root was split
+        {
+            int newRoot = allocate( INTERNAL );
+            ByteBuffer b = buffer( newRoot );
+            int p = base( newRoot );
+            b.putInt( p + COUNT, 1 );
+            b.putInt( p + CHILDREN, left );
+            b.putInt( p + CHILDREN + 4, right );
+            b.putInt( p + internalKeys, key );
+            root = newRoot;
+            height++;
+            return;
+        }
+
+        int page = pathPage[ level ];
+        int i = pathIndex[ level ];     // key goes at i, right at i + 1
+        ByteBuffer b = buffer( page );
+        int p = base( page );
+        int count = b.getInt( p + COUNT );
+        if( count < internalCapacity )
+        {
+            for( int j = count; j > i; j-- )
+            {
+                b.putInt( p + internalKeys + 4 * j, b.getInt( p + internalKeys + 4 * ( j - 1 ) ) );
+                b.putInt( p + CHILDREN + 4 * ( j + 1 ), b.getInt( p + CHILDREN + 4 * j ) );
+            }
+            b.putInt( p + internalKeys + 4 * i, key );
+            b.putInt( p + CHILDREN + 4 * ( i + 1 ), right );
+            b.putInt( p + COUNT, count + 1 );
+            return;
+        }
+
+        int [ ] keys = new int[ count + 1 ];
+        int [ ] children = new int[ count + 2 ];
+        for( int j = 0, k = 0; j <= count; j++ )
+            keys[ j ] = ( j == i ) ? key : b.getInt( p + internalKeys + 4 * k++ );
+        for( int j = 0, k = 0; j <= count + 1; j++ )
+            children[ j ] = ( j == i + 1 ) ? right : b.getInt( p + CHILDREN + 4 * k++ );
+
+        int sibling = allocate( INTERNAL );
+        b = buffer( page );
+        ByteBuffer sb = buffer( sibling );
+        int sp = base( sibling );
+        int mid = ( count + 1 ) / 2;    // keys[ mid ] moves up
+        for( int j = 0; j < mid; j++ )
+            b.putInt( p + internalKeys + 4 * j, keys[ j ] );
+        for( int j = 0; j <= mid; j++ )
+            b.putInt( p + CHILDREN + 4 * j, children[ j ] );
+        b.putInt( p + COUNT, mid );
+        for( int j = mid + 1; j <= count; j++ )
+            sb.putInt( sp + internalKeys + 4 * ( j - mid - 1 ), keys[ j ] );
+        for( int j = mid + 1; j <= count + 1; j++ )
+            sb.putInt( sp + CHILDREN + 4 * ( j - mid - 1 ), children[ j ] );
+        sb.putInt( sp + COUNT, count - mid );
+
+        insertInParent( level - 1, page, keys[ mid ], sibling );
+    }
+
+    /**
+     * Remove from the tree.
+     * @param x the item to remove.
+     * @return false if x was not present.
+     */
+    public boolean remove( int x )
+    {
+        int leaf = descend( x );
+        ByteBuffer b = buffer( leaf );
+        int p = base( leaf );
+        int count = b.getInt( p + COUNT );
+        int i = search( b, p + LEAF_KEYS, count, x );
+        if( i < 0 )
+            return false;   // Item not found; do nothing
+
+        for( int j = i; j < count - 1; j++ )
+            b.putInt( p + LEAF_KEYS + 4 * j, b.getInt( p + LEAF_KEYS + 4 * ( j + 1 ) ) );
+        b.putInt( p + COUNT, count - 1 );
+        size--;
+
+        if( count == 1 && height > 0 )
+        {
+            int prev = b.getInt( p + PREV );
+            int next = b.getInt( p + NEXT );
+            if( prev != 0 )
+                buffer( prev ).putInt( base( prev ) + NEXT, next );
+            if( next != 0 )
+                buffer( next ).putInt( base( next ) + PREV, prev );
+            free( leaf );
+            removeFromParent( height - 1 );
+            collapseRoot( );
+        }
+        writeHeader( );
+        return true;
+    }
+
+    /**
+     * Internal method to drop the child at pathIndex[ level ], which has
+     * been freed, from the internal page at path level, together with the
+     * separator on its left (or on its right for the first child).
+     */
+    private void removeFromParent( int level )
+    {
+        int page = pathPage[ level ];
+        int i = pathIndex[ level ];
+        ByteBuffer b = buffer( page );
+        int p = base( page );
+        int count = b.getInt( p + COUNT );
+
+        if( count == 0 )    // its only child is gone
+        {
+            free( page );
+            if( level > 0 )
+                removeFromParent( level - 1 );
+            else
+            {
+                root = newEmptyRoot( );
+                height = 0;
+            }
+            return;
+        }
+
+        int k = ( i > 0 ) ? i - 1 : 0;
+        for( int j = k; j < count - 1; j++ )
+            b.putInt( p + internalKeys + 4 * j, b.getInt( p + internalKeys + 4 * ( j + 1 ) ) );
+        for( int j = i; j < count; j++ )
+            b.putInt( p + CHILDREN + 4 * j, b.getInt( p + CHILDREN + 4 * ( j + 1 ) ) );
+        b.putInt( p + COUNT, count - 1 );
+    }
+
+    /**
+     * Internal method to make an empty leaf root; a page was just freed,
+     * so this never grows the file.
+     */
+    private int newEmptyRoot( )
+    {
+        try
+        {
+            return newLeaf( );
+        }
+        catch( IOException e )
+        {
+            throw new IllegalStateException( e );   // cannot happen: the free list is not empty
+        }
+    }
+
+    /**
+     * Internal method to replace a root that has a single child by that child.
+     */
+    private void collapseRoot( )
+    {
+        while( height > 0 && buffer( root ).getInt( base( root ) + COUNT ) == 0 )
+        {
+            int child = buffer( root ).getInt( base( root ) + CHILDREN );
+            free( root );
+            root = child;
+            height--;
+        }
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item.
+     */
+    public int findMin( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        int page = root;
+        for( int level = 0; level < height; level++ )
+            page = buffer( page ).getInt( base( page ) + CHILDREN );
+        return buffer( page ).getInt( base( page ) + LEAF_KEYS );
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     */
+    public int findMax( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        int page = root;
+        for( int level = 0; level < height; level++ )
+        {
+            ByteBuffer b = buffer( page );
+            int p = base( page );
+            page = b.getInt( p + CHILDREN + 4 * b.getInt( p + COUNT ) );
+        }
+        ByteBuffer b = buffer( page );
+        int p = base( page );
+        return b.getInt( p + LEAF_KEYS + 4 * ( b.getInt( p + COUNT ) - 1 ) );
+    }
+
+    /**
+     * Pass every item in [lo, hi] to action in increasing order, walking
+     * the linked leaves.
+     */
+    public void range( int lo, int hi, IntConsumer action )
+    {
+        if( lo > hi )
+            return;
+        int leaf = descend( lo );
+        ByteBuffer b = buffer( leaf );
+        int p = base( leaf );
+        int i = search( b, p + LEAF_KEYS, b.getInt( p + COUNT ), lo );
+        i = ( i >= 0 ) ? i : -i - 1;
+        while( true )
+        {
+            int count = b.getInt( p + COUNT );
+            for( ; i < count; i++ )
+            {
+                int k = b.getInt( p + LEAF_KEYS + 4 * i );
+                if( k > hi )
+                    return;
+                action.accept( k );
+            }
+            leaf = b.getInt( p + NEXT );
+            if( leaf == 0 )
+                return;
+            b = buffer( leaf );
+            p = base( leaf );
+            i = 0;
+        }
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public long size( )
+    {
+        return size;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of internal levels; 0 when the root is a leaf.
+     */
+    public int height( )
+    {
+        return height;
+    }
+
+    /**
+     * Return the number of pages in the file, including the header and
+     * free pages.
+     */
+    public int pageCount( )
+    {
+        return pageCount;
+    }
+
+    /**
+     * Make the tree logically empty. The file keeps its length; every page
+     * but the header and the new root is dropped.
+     */
+    public void makeEmpty( ) throws IOException
+    {
+        pageCount = 1;
+        freeHead = 0;
+        height = 0;
+        size = 0;
+        root = newLeaf( );
+        writeHeader( );
+    }
+
+    /**
+     * Force every page to disk.
+     */
+    public void sync( )
+    {
+        writeHeader( );
+        for( MappedByteBuffer b : segments )
+            b.force( );
+    }
+
+    /**
+     * Sync and close the file. The mappings are released when they are
+     * garbage collected.
+     */
+    public void close( ) throws IOException
+    {
+        sync( );
+        channel.close( );
+    }
+
+
+        // Test program
+    public static void main( String [ ] args ) throws IOException
+    {
+        final int NUMS = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000000;
+        int pageSize = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : DEFAULT_PAGE_SIZE;
+        Path file = Files.createTempFile( "bplustree", ".db" );
+        Files.delete( file );
+
+        int [ ] keys = new int[ NUMS ];
+        for( int i = 0; i < NUMS; i++ )
+            keys[ i ] = i * 0x9E3779B1;     // distinct, in scrambled order
+
+        BPlusTree t = new BPlusTree( file, pageSize );
+        System.out.println( "Checking... (no more output means success)" );
+
+        long startTime = System.nanoTime( );
+        for( int k : keys )
+            t.insert( k );
+        System.out.println( "\nTime Taken by Insert " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+        System.out.println( "Height " + t.height( ) + ", " + t.pageCount( ) + " pages of " + pageSize + " bytes." );
+
+        startTime = System.nanoTime( );
+        for( int k : keys )
+            if( !t.contains( k ) )
+                System.out.println( "Find error!" );
+        System.out.println( "\nTime Taken by Find " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        final long [ ] scanned = new long[ 1 ];
+        final int [ ] last = { Integer.MIN_VALUE };
+        startTime = System.nanoTime( );
+        t.range( Integer.MIN_VALUE, Integer.MAX_VALUE, k -> {
+            if( scanned[ 0 ]++ > 0 && k <= last[ 0 ] )
+                System.out.println( "Range error!" );
+            last[ 0 ] = k;
+        } );
+        System.out.println( "\nTime Taken by Range " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+        if( scanned[ 0 ] != t.size( ) )
+            System.out.println( "Range error!" );
+
+        t.close( );
+        t = new BPlusTree( file );
+        startTime = System.nanoTime( );
+        for( int i = 0; i < NUMS; i += 2 )
+            t.remove( keys[ i ] );
+        System.out.println( "\nTime Taken by Remove " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+        for( int i = 1; i < NUMS; i += 2 )
+            if( !t.contains( keys[ i ] ) )
+                System.out.println( "Remove error!" );
+
+        for( int i = 1; i < NUMS; i += 2 )
+            t.remove( keys[ i ] );
+        if( !t.isEmpty( ) || t.height( ) != 0 )
+            System.out.println( "Remove error!" );
+        t.close( );
+        Files.delete( file );
+    }
+}
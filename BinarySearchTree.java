@@ -4,19 +4,28 @@
  *  Problem: Testing running times of Skewed Tree and Balanced Tree
  *  Description: This Problem measures running time of searches for skewed tree and Balanced tree.
  *				
- *  Input: Number of Nodes
+ *  Input: Number of Nodes; an optional argument sets the size of the skewed
+ *         run (default 10000, e.g. 1000000 for the original million-node case)
  *  Output: running times to find node in tree
  *
  *  Visible data fields:
  * none.
  *
  * Visible methods:
+ * BinarySearchTree( mode ) --> Construct a PLAIN, TREAP or SCAPEGOAT tree
+ * BinarySearchTree( mode, alpha ) --> Construct a SCAPEGOAT tree with the given alpha
  * void insert( x )       --> Insert x
  * void remove( x )       --> Remove x
  * boolean contains( x )  --> Return true if x is present
  * Comparable findMin( )  --> Return smallest item
  * Comparable findMax( )  --> Return largest item
+ * int size( )            --> Return number of items
  * boolean isEmpty( )     --> Return true if empty; else false
+ * void rebalance( )      --> Rebuild the tree into perfect balance
+ * FrozenBinarySearchTree freeze( ) --> Return a read-only copy stored in one array
+ * BinarySearchTreeStats stats( ) --> Depth and compare counts, without walking the tree
+ * int recomputeDepth( )  --> Measure the height in O(N) and report it as the max depth
+ * void resetStats( )     --> Zero the operation counters and the depth histogram
  * void makeEmpty( )      --> Remove all items
  * void printTree( )      --> Print tree in sorted order *
  *
@@ -58,6 +67,32 @@
  * But time required for 1000 to 100000 to 1000000 doesn't vary much.
  * 1000 numbers its 339558 and 1000000 numbers its 1490803 which is almost constant with slight change of nanoseconds
  * time measurements proves that Balance tree takes O(log(n)) time which is considerably low than O(N) that skewed tree takes.  
+ *
+ * Every operation is a loop (printTree and height use an explicit stack or
+ * queue), so a skewed chain of a million nodes is slow but cannot overflow
+ * the call stack. The skewed run defaults to 10000 nodes because building
+ * the chain costs O(N^2); give 1000000 as the first argument to run the
+ * million-node case.
+ * Treap mode: each node gets a random priority and the tree is kept in heap
+ * order on priorities, so its shape is that of a BST built from a random
+ * insertion order whatever the real order is: sorted input gives O(log N)
+ * expected depth, with no heights to update. Insert splits the subtree it
+ * displaces in one pass down; remove merges the two subtrees of the removed
+ * node in one pass down.
+ * Scapegoat mode: the nodes carry nothing extra. An insert that lands
+ * deeper than log base 1/alpha of N walks back up its path to the lowest
+ * ancestor with a child holding more than alpha of its nodes, and rebuilds
+ * that subtree into perfect balance in linear time; when removes shrink the
+ * tree below alpha times its largest size the whole tree is rebuilt. Both
+ * are paid for by the operations since the last rebuild, so inserts,
+ * removes and searches are O(log N) amortized even for sorted input.
+ * Metrics: every operation updates the counters in O(1), and stats( )
+ * never walks the tree. The max depth is the deepest insert since the tree
+ * was last empty, rebuilt by rebalance( ) or measured. In PLAIN and
+ * SCAPEGOAT modes removes and rebuilds only move nodes up, so it is an
+ * upper bound on the height; treap splits and merges also move nodes down,
+ * so in TREAP mode it is only an estimate. recomputeDepth( ) measures the
+ * real height in O(N) and is never called by the other operations.
  *************************************************************************/
 
 /**
@@ -65,14 +100,55 @@
  * Note that all "matching" is based on the compareTo method.
  * @author Mark Allen Weiss
  */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
 {
+    /**
+     * How the tree keeps itself balanced.
+     * PLAIN: not at all; the shape depends on the insertion order.
+     * TREAP: each node gets a random priority and the tree is kept in heap
+     *        order on priorities, which gives O(log N) expected depth for
+     *        any insertion order.
+     * SCAPEGOAT: no balance data in the nodes; an insert that lands deeper
+     *        than log base 1/alpha of the size rebuilds the subtree that
+     *        is out of balance, giving O(log N) amortized operations.
+     */
+    public enum Mode { PLAIN, TREAP, SCAPEGOAT }
+
+    private static final double DEFAULT_ALPHA = 0.7;
+
     /**
      * Construct the tree.
      */
     public BinarySearchTree( )
     {
+        this( Mode.PLAIN );
+    }
+
+    /**
+     * Construct the tree with the given balancing mode.
+     */
+    public BinarySearchTree( Mode mode )
+    {
+        this( mode, DEFAULT_ALPHA );
+    }
+
+    /**
+     * Construct the tree with the given balancing mode.
+     * @param alpha how lopsided a subtree may get in SCAPEGOAT mode: no
+     * child may hold more than alpha of its parent's nodes. Lower values
+     * keep the tree shallower at the cost of more rebuilding.
+     */
+    public BinarySearchTree( Mode mode, double alpha )
+    {
+        if( alpha < 0.5 || alpha >= 1 )
+            throw new IllegalArgumentException( "alpha must be in [0.5, 1): " + alpha );
+        this.mode = mode;
+        this.alpha = alpha;
+        logInverseAlpha = Math.log( 1 / alpha );
         root = null;
     }
 
@@ -82,7 +158,20 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
      */
     public void insert( AnyType x )
     {
-        root = insert( x, root );
+        int depth = ( mode == Mode.TREAP ) ? treapInsert( x ) : plainInsert( x );
+        insertCalls++;
+        insertCompares += lastWalk;
+        if( depth < 0 )
+            return;  // Duplicate
+        size++;
+        depthHistogram[ Math.min( depth, BinarySearchTreeStats.HISTOGRAM_BINS - 1 ) ]++;
+        maxDepth = Math.max( maxDepth, depth );
+        if( mode == Mode.SCAPEGOAT )
+        {
+            maxSize = Math.max( maxSize, size );
+            if( depth > Math.log( size ) / logInverseAlpha )
+                rebuildScapegoat( );
+        }
     }
 
     /**
@@ -91,7 +180,121 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
      */
     public void remove( AnyType x )
     {
-        root = remove( x, root );
+        BinaryNode<AnyType> parent = null;
+        BinaryNode<AnyType> t = root;
+        boolean isLeft = false;
+        int compares = 0;
+        while( t != null )
+        {
+            int compareResult = x.compareTo( t.element );
+            compares++;
+
+            if( compareResult == 0 )
+                break;
+            parent = t;
+            isLeft = compareResult < 0;
+            t = isLeft ? t.left : t.right;
+        }
+        removeCalls++;
+        removeCompares += compares;
+        if( t == null )
+            return;     // Item not found; do nothing
+
+        size--;
+        if( mode == Mode.TREAP )
+            merge( parent, isLeft, t.left, t.right );
+        else if( t.left != null && t.right != null ) // Two children
+        {
+            BinaryNode<AnyType> minParent = t;
+            BinaryNode<AnyType> min = t.right;
+            while( min.left != null )
+            {
+                minParent = min;
+                min = min.left;
+            }
+            t.element = min.element;
+            setChild( minParent, minParent != t, min.right );
+        }
+        else
+            setChild( parent, isLeft, ( t.left != null ) ? t.left : t.right );
+        if( size == 0 )
+            maxDepth = 0;
+
+        if( mode == Mode.SCAPEGOAT && size < alpha * maxSize )
+            rebalance( );
+    }
+
+    /**
+     * Rebuild the whole tree into perfect balance in O(N) time. A treap
+     * keeps its expected balance by itself, so this does nothing in
+     * TREAP mode.
+     */
+    public void rebalance( )
+    {
+        if( mode != Mode.TREAP )
+        {
+            root = rebuild( root, size );
+            maxDepth = 31 - Integer.numberOfLeadingZeros( Math.max( size, 1 ) );
+        }
+        maxSize = size;
+    }
+
+    /**
+     * Return the running metrics. Costs O(1) plus a copy of the histogram;
+     * the tree is not walked.
+     */
+    public BinarySearchTreeStats stats( )
+    {
+        return new BinarySearchTreeStats( mode, size, maxDepth, depthHistogram.clone( ),
+                insertCalls, insertCompares, removeCalls, removeCompares,
+                containsCalls, containsCompares );
+    }
+
+    /**
+     * Walk the whole tree to find its height, and report that as the max
+     * depth from now on. Costs O(N); no other operation calls it.
+     * @return the height, or 0 if the tree is empty.
+     */
+    public int recomputeDepth( )
+    {
+        maxDepth = Math.max( height( root ), 0 );
+        return maxDepth;
+    }
+
+    /**
+     * Zero the operation counters and the depth histogram. The max depth
+     * describes the shape of the tree, so it is kept.
+     */
+    public void resetStats( )
+    {
+        insertCalls = insertCompares = removeCalls = removeCompares = 0;
+        containsCalls = containsCompares = 0;
+        Arrays.fill( depthHistogram, 0 );
+    }
+
+    /**
+     * Return a read-only copy of the tree laid out in one array, which
+     * answers searches with fewer cache misses. Later changes to this tree
+     * do not affect the copy.
+     */
+    public FrozenBinarySearchTree<AnyType> freeze( )
+    {
+        Object [ ] sorted = new Object[ size ];
+        int count = 0;
+        BinaryNode<AnyType> t = root;
+        ArrayDeque<BinaryNode<AnyType>> stack = new ArrayDeque<BinaryNode<AnyType>>( );
+        while( t != null || !stack.isEmpty( ) )
+        {
+            while( t != null )
+            {
+                stack.push( t );
+                t = t.left;
+            }
+            t = stack.pop( );
+            sorted[ count++ ] = t.element;
+            t = t.right;
+        }
+        return new FrozenBinarySearchTree<AnyType>( sorted, count );
     }
 
     /**
@@ -123,7 +326,10 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
      */
     public boolean contains( AnyType x )
     {
-        return contains( x, root );
+        boolean found = contains( x, root );
+        containsCalls++;
+        containsCompares += lastWalk;
+        return found;
     }
 
     /**
@@ -132,6 +338,16 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
     public void makeEmpty( )
     {
         root = null;
+        size = maxSize = maxDepth = 0;
+        resetStats( );
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return size;
     }
 
     /**
@@ -155,52 +371,237 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
     }
 
     /**
-     * Internal method to insert into a subtree.
+     * Internal method to insert with no balancing. In SCAPEGOAT mode the
+     * nodes from the root to the new node are left in path. The number of
+     * compares is left in lastWalk.
      * @param x the item to insert.
-     * @param t the node that roots the subtree.
+     * @return the depth of the new node, or -1 if x was already present.
+     */
+    private int plainInsert( AnyType x )
+    {
+        boolean record = mode == Mode.SCAPEGOAT;
+        if( record )
+            path.clear( );
+        BinaryNode<AnyType> parent = null;
+        BinaryNode<AnyType> t = root;
+        boolean isLeft = false;
+        int depth = 0;
+        lastWalk = 0;
+        while( t != null )
+        {
+            int compareResult = x.compareTo( t.element );
+            lastWalk++;
+
+            if( compareResult == 0 )
+                return -1;  // Duplicate; do nothing
+            if( record )
+                path.add( t );
+            parent = t;
+            isLeft = compareResult < 0;
+            t = isLeft ? t.left : t.right;
+            depth++;
+        }
+        BinaryNode<AnyType> n = new BinaryNode<AnyType>( x, null, null );
+        setChild( parent, isLeft, n );
+        if( record )
+            path.add( n );
+        return depth;
+    }
+
+    /**
+     * Internal method to rebuild after an insert went too deep. Walking up
+     * the recorded path, the first ancestor whose child on the path holds
+     * more than alpha of its nodes is the scapegoat; one always exists
+     * when the new node is too deep. Only the sizes of the siblings along
+     * the way are counted, so finding and rebuilding the scapegoat costs
+     * time linear in its size.
+     */
+    private void rebuildScapegoat( )
+    {
+        int childSize = 1;
+        for( int i = path.size( ) - 2; i >= 0; i-- )
+        {
+            BinaryNode<AnyType> t = path.get( i );
+            BinaryNode<AnyType> child = path.get( i + 1 );
+            int tSize = childSize + 1 + countNodes( ( t.left == child ) ? t.right : t.left );
+            if( childSize > alpha * tSize )
+            {
+                BinaryNode<AnyType> parent = ( i > 0 ) ? path.get( i - 1 ) : null;
+                setChild( parent, parent != null && parent.left == t, rebuild( t, tSize ) );
+                break;
+            }
+            childSize = tSize;
+        }
+        path.clear( );
+    }
+
+    /**
+     * Internal method to count the nodes of a subtree with an explicit stack.
+     */
+    private int countNodes( BinaryNode<AnyType> t )
+    {
+        int count = 0;
+        ArrayDeque<BinaryNode<AnyType>> stack = new ArrayDeque<BinaryNode<AnyType>>( );
+        if( t != null )
+            stack.push( t );
+        while( !stack.isEmpty( ) )
+        {
+            BinaryNode<AnyType> n = stack.pop( );
+            count++;
+            if( n.left != null )
+                stack.push( n.left );
+            if( n.right != null )
+                stack.push( n.right );
+        }
+        return count;
+    }
+
+    /**
+     * Internal method to rebuild a subtree of n nodes into perfect balance:
+     * flatten it in sorted order, then relink the same nodes middle first.
      * @return the new root of the subtree.
      */
-    private BinaryNode<AnyType> insert( AnyType x, BinaryNode<AnyType> t )
+    private BinaryNode<AnyType> rebuild( BinaryNode<AnyType> t, int n )
     {
-        if( t == null )
-            return new BinaryNode<AnyType>( x, null, null );
-        
-        int compareResult = x.compareTo( t.element );
-            
-        if( compareResult < 0 )
-            t.left = insert( x, t.left );
-        else if( compareResult > 0 )
-            t.right = insert( x, t.right );
-        else
-            ;  // Duplicate; do nothing
+        @SuppressWarnings( "unchecked" )
+        BinaryNode<AnyType> [ ] nodes = (BinaryNode<AnyType> [ ]) new BinaryNode<?>[ n ];
+        int count = 0;
+        ArrayDeque<BinaryNode<AnyType>> stack = new ArrayDeque<BinaryNode<AnyType>>( );
+        while( t != null || !stack.isEmpty( ) )
+        {
+            while( t != null )
+            {
+                stack.push( t );
+                t = t.left;
+            }
+            t = stack.pop( );
+            nodes[ count++ ] = t;
+            t = t.right;
+        }
+        return buildBalanced( nodes, 0, count - 1 );
+    }
+
+    /**
+     * Internal method to link nodes[lo..hi] into a perfectly balanced
+     * subtree. Recursion depth is only log N.
+     */
+    private static <AnyType> BinaryNode<AnyType> buildBalanced( BinaryNode<AnyType> [ ] nodes, int lo, int hi )
+    {
+        if( lo > hi )
+            return null;
+        int mid = ( lo + hi ) >>> 1;
+        BinaryNode<AnyType> t = nodes[ mid ];
+        t.left = buildBalanced( nodes, lo, mid - 1 );
+        t.right = buildBalanced( nodes, mid + 1, hi );
         return t;
     }
 
     /**
-     * Internal method to remove from a subtree.
-     * @param x the item to remove.
-     * @param t the node that roots the subtree.
-     * @return the new root of the subtree.
+     * Internal method to insert into a treap. The new node goes where the
+     * first node with a lower priority is on the search path, and the
+     * subtree it displaces is split around x into its two children. The
+     * number of compares is left in lastWalk.
+     * @param x the item to insert.
+     * @return the depth of the new node, or -1 if x was already present.
      */
-    private BinaryNode<AnyType> remove( AnyType x, BinaryNode<AnyType> t )
+    private int treapInsert( AnyType x )
     {
-        if( t == null )
-            return t;   // Item not found; do nothing
-            
-        int compareResult = x.compareTo( t.element );
-            
-        if( compareResult < 0 )
-            t.left = remove( x, t.left );
-        else if( compareResult > 0 )
-            t.right = remove( x, t.right );
-        else if( t.left != null && t.right != null ) // Two children
+        if( contains( x, root ) )
+            return -1;  // Duplicate; do nothing
+        int compares = lastWalk;
+        int depth = 0;
+
+        BinaryNode<AnyType> n = new BinaryNode<AnyType>( x, null, null );
+        n.priority = random.nextInt( );
+
+        BinaryNode<AnyType> parent = null;
+        BinaryNode<AnyType> t = root;
+        boolean isLeft = false;
+        while( t != null && t.priority >= n.priority )
+        {
+            parent = t;
+            isLeft = x.compareTo( t.element ) < 0;
+            t = isLeft ? t.left : t.right;
+            compares++;
+            depth++;
+        }
+        setChild( parent, isLeft, n );
+
+            // Split t: items below x form n's left subtree, the rest its right.
+            // lastLess is the node whose right link takes the next smaller
+            // part, lastGreater the node whose left link takes the next
+            // larger part; null means n itself.
+        BinaryNode<AnyType> lastLess = null;
+        BinaryNode<AnyType> lastGreater = null;
+        while( t != null )
+        {
+            compares++;
+            if( x.compareTo( t.element ) < 0 )
+            {
+                if( lastGreater == null )
+                    n.right = t;
+                else
+                    lastGreater.left = t;
+                lastGreater = t;
+                t = t.left;
+            }
+            else
+            {
+                if( lastLess == null )
+                    n.left = t;
+                else
+                    lastLess.right = t;
+                lastLess = t;
+                t = t.right;
+            }
+        }
+        if( lastGreater != null )
+            lastGreater.left = null;
+        if( lastLess != null )
+            lastLess.right = null;
+        lastWalk = compares;
+        return depth;
+    }
+
+    /**
+     * Internal method to merge two treaps, every item of a smaller than
+     * every item of b, and link the result in as a child of parent.
+     */
+    private void merge( BinaryNode<AnyType> parent, boolean isLeft,
+                        BinaryNode<AnyType> a, BinaryNode<AnyType> b )
+    {
+        while( a != null && b != null )
         {
-            t.element = findMin( t.right ).element;
-            t.right = remove( t.element, t.right );
+            if( a.priority >= b.priority )
+            {
+                setChild( parent, isLeft, a );
+                parent = a;
+                isLeft = false;     // the rest of a and all of b go to a's right
+                a = a.right;
+            }
+            else
+            {
+                setChild( parent, isLeft, b );
+                parent = b;
+                isLeft = true;
+                b = b.left;
+            }
         }
+        setChild( parent, isLeft, ( a != null ) ? a : b );
+    }
+
+    /**
+     * Internal method to make child the left or right child of parent,
+     * or the root if parent is null.
+     */
+    private void setChild( BinaryNode<AnyType> parent, boolean isLeft, BinaryNode<AnyType> child )
+    {
+        if( parent == null )
+            root = child;
+        else if( isLeft )
+            parent.left = child;
         else
-            t = ( t.left != null ) ? t.left : t.right;
-        return t;
+            parent.right = child;
     }
 
     /**
@@ -210,11 +611,11 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
      */
     private BinaryNode<AnyType> findMin( BinaryNode<AnyType> t )
     {
-        if( t == null )
-            return null;
-        else if( t.left == null )
-            return t;
-        return findMin( t.left );
+        if( t != null )
+            while( t.left != null )
+                t = t.left;
+
+        return t;
     }
 
     /**
@@ -232,24 +633,28 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
     }
 
     /**
-     * Internal method to find an item in a subtree.
+     * Internal method to find an item in a subtree. The number of compares
+     * is left in lastWalk.
      * @param x is item to search for.
      * @param t the node that roots the subtree.
      * @return node containing the matched item.
      */
     private boolean contains( AnyType x, BinaryNode<AnyType> t )
     {
-        if( t == null )
-            return false;
-            
-        int compareResult = x.compareTo( t.element );
-            
-        if( compareResult < 0 )
-            return contains( x, t.left );
-        else if( compareResult > 0 )
-            return contains( x, t.right );
-        else
-            return true;    // Match
+        lastWalk = 0;
+        while( t != null )
+        {
+            int compareResult = x.compareTo( t.element );
+            lastWalk++;
+
+            if( compareResult < 0 )
+                t = t.left;
+            else if( compareResult > 0 )
+                t = t.right;
+            else
+                return true;    // Match
+        }
+        return false;   // No match
     }
 
     /**
@@ -258,24 +663,43 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
      */
     private void printTree( BinaryNode<AnyType> t )
     {
-        if( t != null )
+        ArrayDeque<BinaryNode<AnyType>> stack = new ArrayDeque<BinaryNode<AnyType>>( );
+        while( t != null || !stack.isEmpty( ) )
         {
-            printTree( t.left );
+            while( t != null )
+            {
+                stack.push( t );
+                t = t.left;
+            }
+            t = stack.pop( );
             System.out.println( t.element );
-            printTree( t.right );
+            t = t.right;
         }
     }
 
     /**
-     * Internal method to compute height of a subtree.
+     * Internal method to compute height of a subtree, one level at a time.
      * @param t the node that roots the subtree.
      */
     private int height( BinaryNode<AnyType> t )
     {
-        if( t == null )
-            return -1;
-        else
-            return 1 + Math.max( height( t.left ), height( t.right ) );    
+        int height = -1;
+        ArrayDeque<BinaryNode<AnyType>> level = new ArrayDeque<BinaryNode<AnyType>>( );
+        if( t != null )
+            level.add( t );
+        while( !level.isEmpty( ) )
+        {
+            height++;
+            for( int i = level.size( ); i > 0; i-- )
+            {
+                BinaryNode<AnyType> n = level.remove( );
+                if( n.left != null )
+                    level.add( n.left );
+                if( n.right != null )
+                    level.add( n.right );
+            }
+        }
+        return height;
     }
     
     // Basic node stored in unbalanced binary search trees
@@ -297,12 +721,33 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
         AnyType element;            // The data in the node
         BinaryNode<AnyType> left;   // Left child
         BinaryNode<AnyType> right;  // Right child
+        int priority;               // Heap priority; used in TREAP mode
     }
 
 
       /** The tree root. */
     private BinaryNode<AnyType> root;
 
+    private final Mode mode;
+    private final Random random = new Random( );
+
+    private int size;               // Number of items
+    private final double alpha;
+    private final double logInverseAlpha;
+    private int maxSize;            // Largest size since the last full rebuild
+    private final ArrayList<BinaryNode<AnyType>> path = new ArrayList<BinaryNode<AnyType>>( );
+
+        // Running metrics, see stats( )
+    private int lastWalk;           // compares made by the last internal search
+    private int maxDepth;           // deepest insert since empty, rebalance( ) or recomputeDepth( )
+    private final long [ ] depthHistogram = new long[ BinarySearchTreeStats.HISTOGRAM_BINS ];
+    private long insertCalls;
+    private long insertCompares;
+    private long removeCalls;
+    private long removeCompares;
+    private long containsCalls;
+    private long containsCompares;
+
 
         // Test program
     public static void main( String [ ] args )
@@ -310,25 +755,29 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
         BinarySearchTree<Integer> t = new BinarySearchTree<Integer>( );
         final int NUMS = 1000000;
         final int GAP  = 1;
+        final int SKEWED = ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : 10000;
+                                    // each sorted insert walks the whole chain
 		int rand;
 
         System.out.println( "Checking... (no more output means success)" );
 
 		//Skewed Tree
-        for( int i = 1; i <= NUMS; i++ )	//inserting elements from 1 to n to create skewed tree
+        for( int i = 1; i <= SKEWED; i++ )	//inserting elements from 1 to n to create skewed tree
             t.insert( i );
 	
 		long startTime = System.nanoTime();
 	
 		System.out.println("\nSkewed Tree: ");
 		
-		if( !t.contains( NUMS+1 ) )
+		if( !t.contains( SKEWED+1 ) )
 			 System.out.println( "Element Not Found!" );
 		
 		System.out.println("\nThe time taken by it is " + (System.nanoTime() - startTime) + " nanoseconds.");
+		System.out.println( t.stats( ) );
 		
-		for( int i = 1; i <= NUMS; i++ )
+		for( int i = 1; i <= SKEWED; i++ )
         	    t.remove( i );
+		t.resetStats( );
 		
 		//Balanced Tree
 		Random rand1 = new Random();	// generating random numbers within range to create balance tree
@@ -347,7 +796,45 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>>
 			 System.out.println( "Element Not Found!" );
 		
 		System.out.println("\nThe time taken by it is " + (System.nanoTime() - startTime) + " nanoseconds.");
+		System.out.println( t.stats( ) );
+
+        //Treap, sorted input
+        BinarySearchTree<Integer> treap = new BinarySearchTree<Integer>( Mode.TREAP );
+        startTime = System.nanoTime( );
+        for( int i = 1; i <= NUMS; i++ )
+            treap.insert( i );
+        System.out.println( "\nTreap (sorted input): " );
+        System.out.println( "\nTime Taken by Insert " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        startTime = System.nanoTime( );
+        if( !treap.contains( NUMS+1 ) )
+            System.out.println( "Element Not Found!" );
+        System.out.println( "\nThe time taken by it is " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+        System.out.println( treap.stats( ) );
+        System.out.println( "Height " + treap.recomputeDepth( ) + " (recomputeDepth)" );
+
+        for( int i = 1; i <= NUMS; i += 2 )
+            treap.remove( i );
+        if( treap.findMin( ) != 2 || treap.findMax( ) != NUMS || treap.contains( 1 ) )
+            System.out.println( "FindMin or FindMax error!" );
+
+        //Scapegoat tree, sorted input
+        BinarySearchTree<Integer> scapegoat = new BinarySearchTree<Integer>( Mode.SCAPEGOAT );
+        startTime = System.nanoTime( );
+        for( int i = 1; i <= NUMS; i++ )
+            scapegoat.insert( i );
+        System.out.println( "\nScapegoat Tree (sorted input): " );
+        System.out.println( "\nTime Taken by Insert " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
 
+        startTime = System.nanoTime( );
+        if( !scapegoat.contains( NUMS+1 ) )
+            System.out.println( "Element Not Found!" );
+        System.out.println( "\nThe time taken by it is " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+        System.out.println( scapegoat.stats( ) );
 
+        for( int i = 1; i <= NUMS; i += 2 )
+            scapegoat.remove( i );
+        if( scapegoat.size( ) != NUMS / 2 || scapegoat.findMin( ) != 2 || scapegoat.contains( 1 ) )
+            System.out.println( "FindMin or FindMax error!" );
     }
 }
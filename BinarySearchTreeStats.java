@@ -0,0 +1,148 @@
+/*************************************************************************
+ *
+ *  Snapshot of BinarySearchTree metrics, returned by BinarySearchTree.stats().
+ *
+ * Visible methods:
+ * Mode getMode( )                    --> PLAIN, TREAP or SCAPEGOAT
+ * int getSize( )                     --> Number of items
+ * int getMaxDepth( )                 --> Deepest insert since the tree was empty,
+ *                                        rebalanced or measured by recomputeDepth( )
+ * long [ ] getDepthHistogram( )      --> [d] = inserts that placed a node at depth d,
+ *                                        the last entry counts all deeper ones
+ * double getDepthRatio( )            --> maxDepth / log2( size ); about 1 when balanced
+ * long getInsertCount( )             --> inserts since the last reset
+ * double getAverageComparesPerInsert( ) --> compareTo calls per insert
+ * long getRemoveCount( )             --> removes since the last reset
+ * double getAverageComparesPerRemove( ) --> compareTo calls per remove
+ * long getContainsCount( )           --> contains calls since the last reset
+ * double getAverageContainsPath( )   --> nodes visited per contains
+ *
+ *   Remarks
+ *   -------
+ * The tree keeps these as running counters, so a snapshot never walks the
+ * tree; each operation updates them in O(1). Depths are those of new nodes
+ * when they were inserted. Removes and scapegoat rebuilds only move nodes
+ * up, so in PLAIN and SCAPEGOAT modes the max depth is an upper bound on
+ * the current height. Treap splits and merges also move nodes down, so in
+ * TREAP mode it is only an estimate.
+ * BinarySearchTree.recomputeDepth( ) sets it to the real height in O(N).
+ * A depth ratio that keeps growing with the size, or a contains path far
+ * above log2( size ), means the tree is degenerating toward a skewed chain.
+ *************************************************************************/
+
+import java.util.Arrays;
+
+public class BinarySearchTreeStats
+{
+    static final int HISTOGRAM_BINS = 65;   // depths 0..63 and 64 or more
+
+    private final BinarySearchTree.Mode mode;
+    private final int size;
+    private final int maxDepth;
+    private final long [ ] depthHistogram;
+    private final long insertCount;
+    private final long insertCompares;
+    private final long removeCount;
+    private final long removeCompares;
+    private final long containsCount;
+    private final long containsCompares;
+
+    BinarySearchTreeStats( BinarySearchTree.Mode mode, int size, int maxDepth, long [ ] depthHistogram,
+                           long insertCount, long insertCompares, long removeCount, long removeCompares,
+                           long containsCount, long containsCompares )
+    {
+        this.mode = mode;
+        this.size = size;
+        this.maxDepth = maxDepth;
+        this.depthHistogram = depthHistogram;
+        this.insertCount = insertCount;
+        this.insertCompares = insertCompares;
+        this.removeCount = removeCount;
+        this.removeCompares = removeCompares;
+        this.containsCount = containsCount;
+        this.containsCompares = containsCompares;
+    }
+
+    public BinarySearchTree.Mode getMode( )
+    {
+        return mode;
+    }
+
+    public int getSize( )
+    {
+        return size;
+    }
+
+    public int getMaxDepth( )
+    {
+        return maxDepth;
+    }
+
+    public long [ ] getDepthHistogram( )
+    {
+        return depthHistogram.clone( );
+    }
+
+    public double getDepthRatio( )
+    {
+        return size < 2 ? 0 : maxDepth / ( Math.log( size ) / Math.log( 2 ) );
+    }
+
+    public long getInsertCount( )
+    {
+        return insertCount;
+    }
+
+    public long getInsertCompares( )
+    {
+        return insertCompares;
+    }
+
+    public double getAverageComparesPerInsert( )
+    {
+        return insertCount == 0 ? 0 : (double) insertCompares / insertCount;
+    }
+
+    public long getRemoveCount( )
+    {
+        return removeCount;
+    }
+
+    public long getRemoveCompares( )
+    {
+        return removeCompares;
+    }
+
+    public double getAverageComparesPerRemove( )
+    {
+        return removeCount == 0 ? 0 : (double) removeCompares / removeCount;
+    }
+
+    public long getContainsCount( )
+    {
+        return containsCount;
+    }
+
+    public long getContainsCompares( )
+    {
+        return containsCompares;
+    }
+
+    public double getAverageContainsPath( )
+    {
+        return containsCount == 0 ? 0 : (double) containsCompares / containsCount;
+    }
+
+    public String toString( )
+    {
+        int last = depthHistogram.length;
+        while( last > 0 && depthHistogram[ last - 1 ] == 0 )
+            last--;
+        return "mode=" + mode + " size=" + size + " maxDepth=" + maxDepth
+            + " depthRatio=" + getDepthRatio( )
+            + " depthHistogram=" + Arrays.toString( Arrays.copyOf( depthHistogram, last ) )
+            + " inserts=" + insertCount + " comparesPerInsert=" + getAverageComparesPerInsert( )
+            + " removes=" + removeCount + " comparesPerRemove=" + getAverageComparesPerRemove( )
+            + " contains=" + containsCount + " containsPath=" + getAverageContainsPath( );
+    }
+}
@@ -0,0 +1,155 @@
+/*************************************************************************
+ *
+ *  Problem: Short-circuiting lookups of keys that are not present
+ *  Description: A blocked Bloom filter answers "definitely not present" or
+ *               "maybe present" for a key, touching a single 64-byte block.
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * public BlockedBloomFilter(long expectedCount, double falsePositiveRate)
+ * public void add(int hash)                --> record a key by its hash code
+ * public boolean mightContain(int hash)    --> false if the key was never added
+ * public void recordFalsePositive()        --> caller saw "maybe" for a key that was absent,
+ *                                              including one that was added and later deleted
+ * public void clear()                      --> forget every key and reset the counters
+ * public long getLookups()                 --> mightContain calls
+ * public long getDefiniteMisses()          --> mightContain calls that returned false
+ * public long getFalsePositives()          --> recorded false positives
+ * public double getHitRate()               --> share of lookups answered by the filter alone
+ * public void resetCounters()              --> zero the counters
+ *
+ *   Remarks
+ *   -------
+ * All the bits of one key are set in the same 512-bit block (one cache line),
+ * so a lookup is one memory access instead of k scattered ones. Keeping bits
+ * in blocks raises the false-positive rate slightly above that of a classic
+ * filter of the same size, so the block count is rounded up by 1/8.
+ *
+ * Keys cannot be removed. A key that is deleted from the table in front of
+ * which the filter sits stays "maybe present" and only costs a normal lookup.
+ * HashChain and AvlTree count that lookup as a false positive, since the
+ * filter answered "maybe" for an absent key.
+ *************************************************************************/
+
+public class BlockedBloomFilter
+{
+    private static final int BLOCK_BITS = 512;
+    private static final int WORDS_PER_BLOCK = BLOCK_BITS / 64;
+
+    private final long[ ] bits;
+    private final int blocks;
+    private final int hashes;   // bits set per key
+
+    private long lookups;
+    private long definiteMisses;
+    private long falsePositives;
+
+    public BlockedBloomFilter( long expectedCount, double falsePositiveRate )
+    {
+        if( expectedCount <= 0 || !( falsePositiveRate > 0 && falsePositiveRate < 1 ) )
+            throw new IllegalArgumentException( "expected count " + expectedCount
+                    + ", false positive rate " + falsePositiveRate );
+        double ln2 = Math.log( 2 );
+        double totalBits = -expectedCount * Math.log( falsePositiveRate ) / ( ln2 * ln2 );
+        long blockCount = (long) Math.ceil( totalBits * 9 / 8 / BLOCK_BITS );
+        if( blockCount * WORDS_PER_BLOCK > Integer.MAX_VALUE - 8 )
+            throw new IllegalArgumentException( "filter for " + expectedCount + " keys is too large" );
+        blocks = (int) Math.max( 1, blockCount );
+        hashes = (int) Math.max( 1, Math.min( 16, Math.round( totalBits / expectedCount * ln2 ) ) );
+        bits = new long[ blocks * WORDS_PER_BLOCK ];
+    }
+
+    // 64-bit finalizer from MurmurHash3: every input bit affects every output bit
+    private static long mix( int hash )
+    {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // first word of the block: high 32 bits scaled to [0, blocks)
+    private int blockStart( long h )
+    {
+        return (int) ( ( ( h >>> 32 ) * blocks ) >>> 32 ) * WORDS_PER_BLOCK;
+    }
+
+    public void add( int hash )
+    {
+        long h = mix( hash );
+        int start = blockStart( h );
+        int h1 = (int) h;
+        int h2 = ( (int) h >>> 16 ) | 1;
+        for( int i = 0; i < hashes; i++ )
+        {
+            int bit = ( h1 + i * h2 ) & ( BLOCK_BITS - 1 );
+            bits[ start + ( bit >>> 6 ) ] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain( int hash )
+    {
+        lookups++;
+        long h = mix( hash );
+        int start = blockStart( h );
+        int h1 = (int) h;
+        int h2 = ( (int) h >>> 16 ) | 1;
+        for( int i = 0; i < hashes; i++ )
+        {
+            int bit = ( h1 + i * h2 ) & ( BLOCK_BITS - 1 );
+            if( ( bits[ start + ( bit >>> 6 ) ] & ( 1L << bit ) ) == 0 )
+            {
+                definiteMisses++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void recordFalsePositive( )
+    {
+        falsePositives++;
+    }
+
+    public void clear( )
+    {
+        java.util.Arrays.fill( bits, 0L );
+        resetCounters( );
+    }
+
+    public long getLookups( )
+    {
+        return lookups;
+    }
+
+    public long getDefiniteMisses( )
+    {
+        return definiteMisses;
+    }
+
+    public long getFalsePositives( )
+    {
+        return falsePositives;
+    }
+
+    public double getHitRate( )
+    {
+        return lookups == 0 ? 0 : (double) definiteMisses / lookups;
+    }
+
+    public void resetCounters( )
+    {
+        lookups = definiteMisses = falsePositives = 0;
+    }
+
+    public String toString( )
+    {
+        return "lookups=" + lookups + " definiteMisses=" + definiteMisses
+                + " falsePositives=" + falsePositives + " hitRate=" + getHitRate( );
+    }
+}
@@ -0,0 +1,852 @@
+/*************************************************************************
+ *
+ *  Problem: Testing throughput of a thread-safe AVL Tree
+ *  Description: This Problem measures how an AVL Tree with lock-free readers
+ *               scales with the number of threads for read-mostly and
+ *               write-heavy mixes of operations.
+ *
+ *  Input: Number of Nodes, number of threads
+ *  Output: operations per second for 90/10 and 50/50 read/write mixes
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * boolean insert( x )    --> Insert x; false if already present
+ * boolean remove( x )    --> Remove x; false if not present
+ * boolean contains( x )  --> Return true if x is present
+ * Comparable findMin( )  --> Return smallest item
+ * Comparable findMax( )  --> Return largest item
+ * int size( )            --> Return number of items
+ * boolean isEmpty( )     --> Return true if empty; else false
+ *
+ *   Remarks
+ *   -------
+ * The tree follows Bronson, Casper, Chafi and Olukotun, "A Practical
+ * Concurrent Binary Search Tree" (PPoPP 2010). Keys never move between
+ * nodes. remove only marks a node absent; a node that is absent and has at
+ * most one child is then unlinked by the rebalancing pass, and one with two
+ * children stays as a routing node until it loses a child.
+ *
+ * Readers take no lock. Every node carries a version that a writer marks as
+ * shrinking while a rotation moves the node down (its key range gets
+ * smaller) and bumps when the rotation is done; an unlinked node gets an
+ * unlinked mark for good. At each step a reader reads the child, checks
+ * that the parent's version has not changed, and moves on with the child's
+ * version. A node that moves up only gains keys, so a reader standing on it
+ * is never misled. When a check fails the reader goes back one level, not
+ * to the root.
+ *
+ * Writers lock only the nodes they change, always a parent before its
+ * child: insert locks the node it hangs the new leaf on, remove the node it
+ * marks, and a rotation the parent, the node, its child and, for a double
+ * rotation, the grandchild. Heights are updated bottom-up after each change,
+ * one node at a time, so for a moment they may be off by a little; every
+ * writer then walks back to the root repairing what it finds, and the tree
+ * is an exact AVL tree again once the writers are done. Writers in different subtrees never wait for
+ * each other, and readers still write no shared memory.
+ *************************************************************************/
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentAvlTree<AnyType extends Comparable<? super AnyType>>
+{
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    // Version bits; the rest of a version counts finished shrinks
+    private static final long UNLINKED = 1;
+    private static final long SHRINKING = 2;
+    private static final long SHRINK_COUNT = 4;
+
+    private static final int SPIN_COUNT = 100;
+
+    // Results of the attempt methods
+    private static final int NO = 0;
+    private static final int YES = 1;
+    private static final int RETRY = 2;     // the parent changed; go back one level
+
+    // What nodeCondition finds; anything else is the height the node should have
+    private static final int NOTHING_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int UNLINK_REQUIRED = -3;
+
+    private static final class Node<AnyType>
+    {
+        Node( AnyType theElement, Node<AnyType> theParent )
+        {
+            element = theElement;
+            parent = theParent;
+            present = theElement != null;
+        }
+
+        final AnyType           element;   // The data in the node; never changes
+        volatile boolean        present;   // False once removed
+        volatile Node<AnyType>  parent;    // Only used by writers
+        volatile Node<AnyType>  left;      // Left child
+        volatile Node<AnyType>  right;     // Right child
+        volatile long           version;   // SHRINKING and UNLINKED bits plus a count
+        volatile int            height;    // Changed under the node's lock
+
+        Node<AnyType> child( int dir )
+        {
+            return dir < 0 ? left : right;
+        }
+
+        void setChild( int dir, Node<AnyType> t )
+        {
+            if( dir < 0 )
+                left = t;
+            else
+                right = t;
+        }
+    }
+
+    // The root is the right child of this node, which never changes
+    private final Node<AnyType> rootHolder = new Node<AnyType>( null, null );
+    private final LongAdder size = new LongAdder( );
+
+    /**
+     * Insert into the tree.
+     * @param x the item to insert.
+     * @return false if x was already present.
+     */
+    public boolean insert( AnyType x )
+    {
+        int result;
+        while( ( result = attemptInsert( x, rootHolder, 1, 0 ) ) == RETRY )
+            ;
+        if( result == YES )
+            size.increment( );
+        return result == YES;
+    }
+
+    /**
+     * Remove from the tree.
+     * @param x the item to remove.
+     * @return false if x was not present.
+     */
+    public boolean remove( AnyType x )
+    {
+        int result;
+        while( ( result = attemptRemove( x, rootHolder, 1, 0 ) ) == RETRY )
+            ;
+        if( result == YES )
+            size.decrement( );
+        return result == YES;
+    }
+
+    /**
+     * Find an item in the tree without locking.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( AnyType x )
+    {
+        int result;
+        while( ( result = attemptGet( x, rootHolder, 1, 0 ) ) == RETRY )
+            ;
+        return result == YES;
+    }
+
+    /**
+     * Find the smallest item in the tree without locking.
+     * @return smallest item.
+     */
+    public AnyType findMin( )
+    {
+        return findEnd( -1 );
+    }
+
+    /**
+     * Find the largest item in the tree without locking.
+     * @return the largest item.
+     */
+    public AnyType findMax( )
+    {
+        return findEnd( 1 );
+    }
+
+    private AnyType findEnd( int dir )
+    {
+        AnyType result;
+        while( ( result = attemptEnd( rootHolder, 1, 0, dir ) ) == null )
+            ;
+        return result;
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return (int) size.sum( );
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Internal method to search below a node.
+     * @param node a node whose version was nodeVersion when it was reached.
+     * @param dir the side of node where x belongs: -1 left, 1 right.
+     * @return YES, NO, or RETRY if node changed.
+     */
+    private int attemptGet( AnyType x, Node<AnyType> node, int dir, long nodeVersion )
+    {
+        while( true )
+        {
+            Node<AnyType> child = node.child( dir );
+            if( node.version != nodeVersion )
+                return RETRY;
+            if( child == null )
+                return NO;      // No match
+
+            int compareResult = x.compareTo( child.element );
+            if( compareResult == 0 )
+                return child.present ? YES : NO;
+
+            long childVersion = child.version;
+            if( ( childVersion & ( SHRINKING | UNLINKED ) ) != 0 )
+                waitUntilShrinkCompleted( child, childVersion );
+            else if( child == node.child( dir ) )
+            {
+                if( node.version != nodeVersion )
+                    return RETRY;
+                int result = attemptGet( x, child, compareResult, childVersion );
+                if( result != RETRY )
+                    return result;
+            }
+            // The child changed; read it again
+        }
+    }
+
+    /**
+     * Internal method to walk to the smallest or largest present item
+     * below a node, with the same checks as attemptGet.
+     * @param end -1 for the smallest item, 1 for the largest.
+     * @return the item, or null if node changed.
+     */
+    private AnyType attemptEnd( Node<AnyType> node, int dir, long nodeVersion, int end )
+    {
+        while( true )
+        {
+            Node<AnyType> child = node.child( dir );
+            if( node.version != nodeVersion )
+                return null;
+            if( child == null )
+            {
+                if( node == rootHolder )
+                    throw new UnderflowException( );
+                if( node.present )
+                    return node.element;
+                // A removed node with at most one child, about to be unlinked
+                Thread.yield( );
+                return null;
+            }
+
+            long childVersion = child.version;
+            if( ( childVersion & ( SHRINKING | UNLINKED ) ) != 0 )
+                waitUntilShrinkCompleted( child, childVersion );
+            else if( child == node.child( dir ) )
+            {
+                if( node.version != nodeVersion )
+                    return null;
+                AnyType result = attemptEnd( child, end, childVersion, end );
+                if( result != null )
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to insert below a node; see attemptGet.
+     * @return YES if x was added, NO if it was present, or RETRY.
+     */
+    private int attemptInsert( AnyType x, Node<AnyType> node, int dir, long nodeVersion )
+    {
+        while( true )
+        {
+            Node<AnyType> child = node.child( dir );
+            if( node.version != nodeVersion )
+                return RETRY;
+            if( child == null )
+            {
+                boolean added = false;
+                synchronized( node )
+                {
+                    if( node.version != nodeVersion )
+                        return RETRY;
+                    if( node.child( dir ) == null )
+                    {
+                        node.setChild( dir, new Node<AnyType>( x, node ) );     // Published fully built
+                        added = true;
+                    }
+                }
+                if( added )
+                {
+                    fixHeightAndRebalance( node );
+                    return YES;
+                }
+                continue;   // Another writer got there first
+            }
+
+            int compareResult = x.compareTo( child.element );
+            if( compareResult == 0 )
+                return revive( child );
+
+            long childVersion = child.version;
+            if( ( childVersion & ( SHRINKING | UNLINKED ) ) != 0 )
+                waitUntilShrinkCompleted( child, childVersion );
+            else if( child == node.child( dir ) )
+            {
+                if( node.version != nodeVersion )
+                    return RETRY;
+                int result = attemptInsert( x, child, compareResult, childVersion );
+                if( result != RETRY )
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to insert the item of a node that was found holding it.
+     */
+    private int revive( Node<AnyType> t )
+    {
+        if( t.present )
+            return NO;      // Duplicate; do nothing
+        synchronized( t )
+        {
+            if( ( t.version & UNLINKED ) != 0 )
+                return RETRY;   // The item may be in a new node by now
+            if( t.present )
+                return NO;
+            t.present = true;
+            return YES;
+        }
+    }
+
+    /**
+     * Internal method to remove below a node; see attemptGet.
+     * @return YES if x was removed, NO if it was not present, or RETRY.
+     */
+    private int attemptRemove( AnyType x, Node<AnyType> node, int dir, long nodeVersion )
+    {
+        while( true )
+        {
+            Node<AnyType> child = node.child( dir );
+            if( node.version != nodeVersion )
+                return RETRY;
+            if( child == null )
+                return NO;      // Item not found; do nothing
+
+            int compareResult = x.compareTo( child.element );
+            if( compareResult == 0 )
+                return removeNode( child );
+
+            long childVersion = child.version;
+            if( ( childVersion & ( SHRINKING | UNLINKED ) ) != 0 )
+                waitUntilShrinkCompleted( child, childVersion );
+            else if( child == node.child( dir ) )
+            {
+                if( node.version != nodeVersion )
+                    return RETRY;
+                int result = attemptRemove( x, child, compareResult, childVersion );
+                if( result != RETRY )
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to remove the item of a node that was found holding
+     * it. An unlinked node is never present, so there is no need to check
+     * for one.
+     */
+    private int removeNode( Node<AnyType> t )
+    {
+        if( !t.present )
+            return NO;
+        boolean unlink;
+        synchronized( t )
+        {
+            if( !t.present )
+                return NO;
+            t.present = false;
+            unlink = t.left == null || t.right == null;
+        }
+        if( unlink )
+            fixHeightAndRebalance( t );     // Unlinks t
+        return YES;
+    }
+
+    private static void waitUntilShrinkCompleted( Node<?> t, long version )
+    {
+        if( ( version & SHRINKING ) == 0 )
+            return;
+        for( int i = 0; t.version == version; i++ )
+        {
+            if( i < SPIN_COUNT )
+                Thread.onSpinWait( );
+            else
+                Thread.yield( );
+        }
+    }
+
+    private static int height( Node<?> t )
+    {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Internal method to find what a node needs, reading without locks.
+     * @return NOTHING_REQUIRED, REBALANCE_REQUIRED, UNLINK_REQUIRED or the
+     * height t should have.
+     */
+    private static int nodeCondition( Node<?> t )
+    {
+        Node<?> tl = t.left;
+        Node<?> tr = t.right;
+        if( ( tl == null || tr == null ) && !t.present )
+            return UNLINK_REQUIRED;
+
+        int hl = height( tl );
+        int hr = height( tr );
+        if( Math.abs( hl - hr ) > ALLOWED_IMBALANCE )
+            return REBALANCE_REQUIRED;
+        int h = Math.max( hl, hr ) + 1;
+        return t.height != h ? h : NOTHING_REQUIRED;
+    }
+
+    /**
+     * Internal method to repair heights, balance and removed nodes from t
+     * up to the root. A rotation can leave more than one node on the path
+     * needing work, so the walk does not stop at the first node that needs
+     * nothing; looking at a node that is fine costs only a few reads.
+     */
+    private void fixHeightAndRebalance( Node<AnyType> t )
+    {
+        while( t != null && t != rootHolder )
+        {
+            if( ( t.version & UNLINKED ) != 0 )
+                return;     // Whoever unlinked t repairs its parent
+
+            Node<AnyType> next = null;
+            int condition = nodeCondition( t );
+            if( condition == REBALANCE_REQUIRED || condition == UNLINK_REQUIRED )
+            {
+                Node<AnyType> parent = t.parent;
+                synchronized( parent )
+                {
+                    if( ( parent.version & UNLINKED ) == 0 && t.parent == parent )
+                    {
+                        synchronized( t )
+                        {
+                            next = rebalance( parent, t );
+                        }
+                    }
+                    else
+                        next = t;   // t moved; look at it again
+                }
+            }
+            else if( condition != NOTHING_REQUIRED )
+            {
+                synchronized( t )
+                {
+                    next = fixHeight( t );
+                }
+            }
+            t = next != null ? next : t.parent;
+        }
+    }
+
+    /**
+     * Internal method to set the height of t, which is locked.
+     * @return the next node to look at, or null.
+     */
+    private Node<AnyType> fixHeight( Node<AnyType> t )
+    {
+        if( t == rootHolder )
+            return null;
+        int condition = nodeCondition( t );
+        switch( condition )
+        {
+          case REBALANCE_REQUIRED:
+          case UNLINK_REQUIRED:
+            return t;       // Needs the parent's lock as well
+          case NOTHING_REQUIRED:
+            return null;
+          default:
+            t.height = condition;
+            return t.parent;
+        }
+    }
+
+    /**
+     * Internal method to unlink, rotate or set the height of t. parent and
+     * t are locked and t is a child of parent.
+     * @return the next node to look at, or null.
+     */
+    private Node<AnyType> rebalance( Node<AnyType> parent, Node<AnyType> t )
+    {
+        if( ( t.version & UNLINKED ) != 0 )
+            return null;    // Unlinked while we waited for the lock
+        Node<AnyType> tl = t.left;
+        Node<AnyType> tr = t.right;
+        if( ( tl == null || tr == null ) && !t.present )
+        {
+            unlink( parent, t, tl != null ? tl : tr );
+            return fixHeight( parent );
+        }
+
+        int hl = height( tl );
+        int hr = height( tr );
+        if( hl - hr > ALLOWED_IMBALANCE )
+            return rebalanceToRight( parent, t, tl, hr );
+        if( hr - hl > ALLOWED_IMBALANCE )
+            return rebalanceToLeft( parent, t, tr, hl );
+        int h = Math.max( hl, hr ) + 1;
+        if( t.height != h )
+        {
+            t.height = h;
+            return parent;
+        }
+        return null;
+    }
+
+    private static <AnyType> void replaceChild( Node<AnyType> parent, Node<AnyType> old, Node<AnyType> child )
+    {
+        if( parent.left == old )
+            parent.left = child;
+        else
+            parent.right = child;
+    }
+
+    /**
+     * Internal method to replace t, which is removed and has at most one
+     * child, by that child. parent and t are locked.
+     */
+    private static <AnyType> void unlink( Node<AnyType> parent, Node<AnyType> t, Node<AnyType> child )
+    {
+        replaceChild( parent, t, child );
+        if( child != null )
+            child.parent = parent;
+        t.version |= UNLINKED;      // Readers standing on t must go back
+    }
+
+    /**
+     * Internal method to fix t, which is too high on the left. parent and
+     * t are locked; this locks the left child and maybe its right child.
+     * @param hr the height of t's right subtree.
+     */
+    private Node<AnyType> rebalanceToRight( Node<AnyType> parent, Node<AnyType> t, Node<AnyType> tl, int hr )
+    {
+        synchronized( tl )
+        {
+            int hl = tl.height;
+            if( hl - hr <= ALLOWED_IMBALANCE )
+                return t;   // tl changed; look at t again
+
+            Node<AnyType> tlr = tl.right;
+            int hll = height( tl.left );
+            int hlr = height( tlr );
+            if( hll >= hlr )
+                return rotateWithLeftChild( parent, t, tl, hr, hll, tlr, hlr );
+
+            synchronized( tlr )
+            {
+                hlr = tlr.height;
+                if( hll >= hlr )
+                    return rotateWithLeftChild( parent, t, tl, hr, hll, tlr, hlr );
+
+                // The double rotation only if it leaves tl balanced and not removable
+                int hlrl = height( tlr.left );
+                if( Math.abs( hll - hlrl ) <= ALLOWED_IMBALANCE &&
+                        !( ( hll == -1 || hlrl == -1 ) && !tl.present ) )
+                    return doubleWithLeftChild( parent, t, tl, tlr, hr, hll, hlrl );
+
+                // Otherwise rotate tl alone; t gets its turn on the way up
+                return rotateWithRightChild( t, tl, tlr, hll, height( tlr.right ), tlr.left, hlrl );
+            }
+        }
+    }
+
+    /**
+     * Internal method to fix t, which is too high on the right; mirror of
+     * rebalanceToRight.
+     * @param hl the height of t's left subtree.
+     */
+    private Node<AnyType> rebalanceToLeft( Node<AnyType> parent, Node<AnyType> t, Node<AnyType> tr, int hl )
+    {
+        synchronized( tr )
+        {
+            int hr = tr.height;
+            if( hr - hl <= ALLOWED_IMBALANCE )
+                return t;
+
+            Node<AnyType> trl = tr.left;
+            int hrr = height( tr.right );
+            int hrl = height( trl );
+            if( hrr >= hrl )
+                return rotateWithRightChild( parent, t, tr, hl, hrr, trl, hrl );
+
+            synchronized( trl )
+            {
+                hrl = trl.height;
+                if( hrr >= hrl )
+                    return rotateWithRightChild( parent, t, tr, hl, hrr, trl, hrl );
+
+                int hrlr = height( trl.right );
+                if( Math.abs( hrr - hrlr ) <= ALLOWED_IMBALANCE &&
+                        !( ( hrr == -1 || hrlr == -1 ) && !tr.present ) )
+                    return doubleWithRightChild( parent, t, tr, trl, hl, hrr, hrlr );
+
+                return rotateWithLeftChild( t, tr, trl, hrr, height( trl.left ), trl.right, hrlr );
+            }
+        }
+    }
+
+    private static void beginShrink( Node<?> t )
+    {
+        t.version |= SHRINKING;     // Readers arriving at t wait
+    }
+
+    private static void endShrink( Node<?> t )
+    {
+        t.version = ( t.version & ~SHRINKING ) + SHRINK_COUNT;     // Readers standing on t go back
+    }
+
+    /**
+     * Rotate binary tree node with left child and link the new subtree
+     * root into parent. k2 moves down and loses k1 and k1's left subtree,
+     * so it is marked as shrinking until the rotation is done. parent, k2
+     * and k1 are locked; the heights are of k2's right subtree and of k1's
+     * subtrees.
+     * @return the next node to look at, or null.
+     */
+    private Node<AnyType> rotateWithLeftChild( Node<AnyType> parent, Node<AnyType> k2, Node<AnyType> k1,
+                                               int hr, int hll, Node<AnyType> k1r, int hlr )
+    {
+        beginShrink( k2 );
+        k2.left = k1r;
+        if( k1r != null )
+            k1r.parent = k2;
+        k1.right = k2;
+        k2.parent = k1;
+        replaceChild( parent, k2, k1 );
+        k1.parent = parent;
+
+        int h2 = Math.max( hlr, hr ) + 1;
+        k2.height = h2;
+        k1.height = Math.max( hll, h2 ) + 1;
+        endShrink( k2 );
+
+        // Fix what we can with the locks we have; deepest node first
+        if( Math.abs( hlr - hr ) > ALLOWED_IMBALANCE ||
+                ( k1r == null || hr == -1 ) && !k2.present )
+            return k2;
+        if( Math.abs( hll - h2 ) > ALLOWED_IMBALANCE || hll == -1 && !k1.present )
+            return k1;
+        return fixHeight( parent );
+    }
+
+    /**
+     * Rotate binary tree node with right child and link the new subtree
+     * root into parent; mirror of rotateWithLeftChild.
+     */
+    private Node<AnyType> rotateWithRightChild( Node<AnyType> parent, Node<AnyType> k1, Node<AnyType> k2,
+                                                int hl, int hrr, Node<AnyType> k2l, int hrl )
+    {
+        beginShrink( k1 );
+        k1.right = k2l;
+        if( k2l != null )
+            k2l.parent = k1;
+        k2.left = k1;
+        k1.parent = k2;
+        replaceChild( parent, k1, k2 );
+        k2.parent = parent;
+
+        int h1 = Math.max( hl, hrl ) + 1;
+        k1.height = h1;
+        k2.height = Math.max( h1, hrr ) + 1;
+        endShrink( k1 );
+
+        if( Math.abs( hrl - hl ) > ALLOWED_IMBALANCE ||
+                ( k2l == null || hl == -1 ) && !k1.present )
+            return k1;
+        if( Math.abs( hrr - h1 ) > ALLOWED_IMBALANCE || hrr == -1 && !k2.present )
+            return k2;
+        return fixHeight( parent );
+    }
+
+    /**
+     * Double rotate binary tree node: first left child with its right
+     * child, then node k3 with new left child, in one step. k2 ends up on
+     * top; k3 and k1 both move down. parent, k3, k1 and k2 are locked.
+     */
+    private Node<AnyType> doubleWithLeftChild( Node<AnyType> parent, Node<AnyType> k3, Node<AnyType> k1,
+                                               Node<AnyType> k2, int hr, int hll, int hlrl )
+    {
+        Node<AnyType> k2l = k2.left;
+        Node<AnyType> k2r = k2.right;
+        int hlrr = height( k2r );
+
+        beginShrink( k3 );
+        beginShrink( k1 );
+        k3.left = k2r;
+        if( k2r != null )
+            k2r.parent = k3;
+        k1.right = k2l;
+        if( k2l != null )
+            k2l.parent = k1;
+        k2.left = k1;
+        k1.parent = k2;
+        k2.right = k3;
+        k3.parent = k2;
+        replaceChild( parent, k3, k2 );
+        k2.parent = parent;
+
+        int h3 = Math.max( hlrr, hr ) + 1;
+        k3.height = h3;
+        int h1 = Math.max( hll, hlrl ) + 1;
+        k1.height = h1;
+        k2.height = Math.max( h1, h3 ) + 1;
+        endShrink( k1 );
+        endShrink( k3 );
+
+        // The caller checked that k1 is balanced and not removable
+        if( Math.abs( hlrr - hr ) > ALLOWED_IMBALANCE ||
+                ( k2r == null || hr == -1 ) && !k3.present )
+            return k3;
+        if( Math.abs( h1 - h3 ) > ALLOWED_IMBALANCE )
+            return k2;
+        return fixHeight( parent );
+    }
+
+    /**
+     * Double rotate binary tree node: first right child with its left
+     * child, then node k1 with new right child; mirror of
+     * doubleWithLeftChild.
+     */
+    private Node<AnyType> doubleWithRightChild( Node<AnyType> parent, Node<AnyType> k1, Node<AnyType> k3,
+                                                Node<AnyType> k2, int hl, int hrr, int hrlr )
+    {
+        Node<AnyType> k2l = k2.left;
+        Node<AnyType> k2r = k2.right;
+        int hrll = height( k2l );
+
+        beginShrink( k1 );
+        beginShrink( k3 );
+        k1.right = k2l;
+        if( k2l != null )
+            k2l.parent = k1;
+        k3.left = k2r;
+        if( k2r != null )
+            k2r.parent = k3;
+        k2.right = k3;
+        k3.parent = k2;
+        k2.left = k1;
+        k1.parent = k2;
+        replaceChild( parent, k1, k2 );
+        k2.parent = parent;
+
+        int h1 = Math.max( hl, hrll ) + 1;
+        k1.height = h1;
+        int h3 = Math.max( hrlr, hrr ) + 1;
+        k3.height = h3;
+        k2.height = Math.max( h1, h3 ) + 1;
+        endShrink( k3 );
+        endShrink( k1 );
+
+        if( Math.abs( hrll - hl ) > ALLOWED_IMBALANCE ||
+                ( k2l == null || hl == -1 ) && !k1.present )
+            return k1;
+        if( Math.abs( h3 - h1 ) > ALLOWED_IMBALANCE )
+            return k2;
+        return fixHeight( parent );
+    }
+
+    /**
+     * Check heights, balance and that no removed node with fewer than two
+     * children is left. Only meaningful while no writer is running.
+     */
+    public void checkBalance( )
+    {
+        checkBalance( rootHolder.right );
+    }
+
+    private int checkBalance( Node<AnyType> t )
+    {
+        if( t == null )
+            return -1;
+
+        int hl = checkBalance( t.left );
+        int hr = checkBalance( t.right );
+        if( Math.abs( height( t.left ) - height( t.right ) ) > 1 ||
+                height( t.left ) != hl || height( t.right ) != hr ||
+                !t.present && ( t.left == null || t.right == null ) )
+            System.out.println( "OOPS!!" );
+
+        return height( t );
+    }
+
+
+        // Test program
+    public static void main( String [ ] args ) throws InterruptedException
+    {
+        final int NUMS = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000000;
+        final int OPS = 2000000;    // operations per run, shared by the threads
+        int maxThreads = args.length > 1 ? Integer.parseInt( args[ 1 ] )
+                : Runtime.getRuntime( ).availableProcessors( );
+
+        for( int readPercent : new int[ ] { 90, 50 } )
+        {
+            System.out.println( "\n" + readPercent + "% reads, " + ( 100 - readPercent ) + "% writes:" );
+            for( int threads = 1; ; threads = Math.min( threads * 2, maxThreads ) )
+            {
+                final ConcurrentAvlTree<Integer> t = new ConcurrentAvlTree<Integer>( );
+                for( int i = 0; i < NUMS; i += 2 )  // half of the key range
+                    t.insert( i );
+
+                final int nThreads = threads;
+                final int percent = readPercent;
+                Thread [ ] workers = new Thread[ nThreads ];
+                for( int w = 0; w < nThreads; w++ )
+                    workers[ w ] = new Thread( ( ) -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current( );
+                        for( int i = 0; i < OPS / nThreads; i++ )
+                        {
+                            int key = random.nextInt( NUMS );
+                            int op = random.nextInt( 100 );
+                            if( op < percent )
+                                t.contains( key );
+                            else if( ( op & 1 ) == 0 )
+                                t.insert( key );
+                            else
+                                t.remove( key );
+                        }
+                    } );
+
+                long startTime = System.nanoTime( );
+                for( Thread w : workers )
+                    w.start( );
+                for( Thread w : workers )
+                    w.join( );
+                long elapsed = System.nanoTime( ) - startTime;
+                t.checkBalance( );
+
+                System.out.println( "Threads " + nThreads + ": " + elapsed + " nanoseconds, "
+                        + (long) ( OPS / ( elapsed / 1e9 ) ) + " operations/second." );
+                if( threads >= maxThreads )
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of a thread-safe Hash Table with separate chaining
+ *  Description: This Problem measures how insertion into a chained Hash Table scales
+ *               when several threads insert at the same time.
+ *
+ *  Input: number of entries, number of threads
+ *  Output: running times and throughput to insert keys with 1 to N threads
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * public int hashFunc(int key)     --> Hash function for deciding bucket of key
+ * public void insert(int key)      --> insert into hash table
+ * public boolean delete(int key)   --> Delete from hash table, false if not present
+ * public boolean find(int key)     --> true if key is present
+ * public long size()               --> Number of keys stored
+ *
+ *   Remarks
+ *   -------
+ * Same layout as HashChain: every bucket is a list sorted by key. Writers lock
+ * one of STRIPES locks chosen by bucket index, so threads working on different
+ * buckets almost never wait on each other. The bucket heads and the next
+ * pointers are volatile and a link is fully built before it is published, so
+ * find takes no lock at all: it either sees a link or it does not, and a
+ * deleted link still points into the rest of the list for readers that are
+ * standing on it.
+ *
+ * The number of buckets is fixed at construction; size it for the expected
+ * number of keys.
+ *************************************************************************/
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentHashChain {
+  private static final int STRIPES = 1024; // power of two
+
+  private static final class Node {
+    final int key;
+    volatile Node next;
+
+    Node(int key, Node next) {
+      this.key = key;
+      this.next = next;
+    }
+  }
+
+  private final AtomicReferenceArray<Node> hashArray;
+  private final int arraySize;
+  private final Object[] locks = new Object[STRIPES];
+  private final LongAdder count = new LongAdder();
+
+  public ConcurrentHashChain(int size) {
+    if (size <= 0)
+      throw new IllegalArgumentException("size " + size);
+    arraySize = size;
+    hashArray = new AtomicReferenceArray<Node>(arraySize);
+    for (int i = 0; i < STRIPES; i++)
+      locks[i] = new Object();
+  }
+
+  public int hashFunc(int key) {
+    return key % arraySize;
+  }
+
+  private Object lockFor(int hashVal) {
+    return locks[hashVal & (STRIPES - 1)];
+  }
+
+  public void insert(int key) {
+    int hashVal = hashFunc(key);
+    synchronized (lockFor(hashVal)) {
+      Node previous = null;
+      Node current = hashArray.get(hashVal);
+      while (current != null && key > current.key) {
+        previous = current;
+        current = current.next;
+      }
+      Node theLink = new Node(key, current); // complete before it is published
+      if (previous == null)
+        hashArray.set(hashVal, theLink);
+      else
+        previous.next = theLink;
+    }
+    count.increment();
+  }
+
+  public boolean delete(int key) {
+    int hashVal = hashFunc(key);
+    synchronized (lockFor(hashVal)) {
+      Node previous = null;
+      Node current = hashArray.get(hashVal);
+      while (current != null && key > current.key) {
+        previous = current;
+        current = current.next;
+      }
+      if (current == null || current.key != key)
+        return false;
+      if (previous == null)
+        hashArray.set(hashVal, current.next);
+      else
+        previous.next = current.next;
+    }
+    count.decrement();
+    return true;
+  }
+
+  public boolean find(int key) {
+    Node current = hashArray.get(hashFunc(key));
+    while (current != null && current.key <= key) {
+      if (current.key == key)
+        return true;
+      current = current.next;
+    }
+    return false;
+  }
+
+  public long size() {
+    return count.sum();
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    final int initSize = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+
+    System.out.println("\nConcurrentHashChain : " + initSize + " keys");
+    for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+      final ConcurrentHashChain hashTable = new ConcurrentHashChain(initSize);
+      final int nThreads = threads;
+      Thread[] workers = new Thread[nThreads];
+      for (int t = 0; t < nThreads; t++) {
+        final int from = (int) ((long) initSize * t / nThreads);
+        final int to = (int) ((long) initSize * (t + 1) / nThreads);
+        workers[t] = new Thread(() -> {
+          for (int i = from; i < to; i++)
+            hashTable.insert(i);
+        });
+      }
+
+      long startTime = System.nanoTime();
+      for (Thread w : workers)
+        w.start();
+      for (Thread w : workers)
+        w.join();
+      long elapsed = System.nanoTime() - startTime;
+
+      System.out.println("Threads " + nThreads + ": Time Taken by Insert " + elapsed
+          + " nanoseconds, " + (long) (initSize / (elapsed / 1e9)) + " inserts/second.");
+      if (hashTable.size() != initSize || hashTable.find(initSize))
+        System.out.println("Size or find error!");
+      if (threads >= maxThreads)
+        break;
+    }
+  }
+}
@@ -0,0 +1,610 @@
+/*************************************************************************
+ *
+ *  Problem: Testing write throughput of a crash-safe AVL Tree
+ *  Description: This Problem measures how many durable inserts per second an AVL Tree
+ *               backed by a write-ahead log can take when several threads share each
+ *               disk sync (group commit).
+ *
+ *  Input: number of inserts, number of threads
+ *  Output: inserts per second and number of disk syncs for each sync policy
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * DurableAvlTree( dir, codec, policy )  --> Open or create the tree stored in dir
+ * boolean insert( x )    --> Insert x; false if already present
+ * boolean remove( x )    --> Remove x; false if not present
+ * boolean contains( x )  --> Return true if x is present
+ * Comparable findMin( )  --> Return smallest item
+ * Comparable findMax( )  --> Return largest item
+ * int size( )            --> Return number of items
+ * void sync( )           --> Make every change so far durable
+ * void checkpoint( )     --> Write a snapshot and empty the log
+ * void close( )          --> Sync and release the files
+ *
+ *   Remarks
+ *   -------
+ * dir holds snapshot.avl, written by AvlTree.writeTo, and wal.log, one record
+ * per change since that snapshot: [length][CRC-32][op][item]. Opening reads
+ * the snapshot, replays the log and cuts off a torn record at its end.
+ * Replaying an insert or remove twice changes nothing, so a crash between
+ * writing a snapshot and emptying the log is harmless.
+ *
+ * Sync policies:
+ *  GROUP_COMMIT  a change returns once its record is on disk. Records of
+ *                changes made while a sync is running wait for the next
+ *                sync, which writes and forces all of them at once, so one
+ *                force serves many threads.
+ *  PERIODIC      records are written and forced by a background thread every
+ *                syncIntervalMillis; a crash loses at most that interval.
+ *  NONE          records are written when the buffer fills and forced only
+ *                by sync, checkpoint and close.
+ *
+ * When the log grows past compactBytes the next change takes a checkpoint.
+ * Changes and lookups wait while a checkpoint writes the snapshot.
+ *************************************************************************/
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class DurableAvlTree<AnyType extends Comparable<? super AnyType>> implements Closeable
+{
+    public enum SyncPolicy { GROUP_COMMIT, PERIODIC, NONE }
+
+    private static final byte OP_INSERT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int MAX_RECORD = 1 << 24;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final AvlTree<AnyType> tree;
+    private final KeyCodec<AnyType> codec;
+    private final SyncPolicy policy;
+    private final long compactBytes;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final FileChannel log;
+    private final ScheduledExecutorService syncer;
+
+    // Records not yet written to the log, and scratch space to build one
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream( );
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream( );
+    private final DataOutputStream recordData = new DataOutputStream( record );
+    private final CRC32 crc = new CRC32( );
+
+    private long appendedLsn;   // number of records appended so far
+    private long durableLsn;    // records known to be forced to disk
+    private long logBytes;      // bytes in the log file, written or pending
+    private boolean flushing;   // a thread is writing and forcing the log
+    private long forces;        // number of forces, for the benchmark
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Open the tree stored in dir, creating it if needed, with group commit,
+     * and a checkpoint whenever the log passes 64 MB.
+     */
+    public DurableAvlTree( Path dir, KeyCodec<AnyType> codec, SyncPolicy policy ) throws IOException
+    {
+        this( dir, codec, policy, 10, 64L << 20 );
+    }
+
+    /**
+     * Open the tree stored in dir, creating it if needed.
+     * @param syncIntervalMillis how often PERIODIC forces the log.
+     * @param compactBytes log size that triggers a checkpoint.
+     */
+    public DurableAvlTree( Path dir, KeyCodec<AnyType> codec, SyncPolicy policy,
+                           long syncIntervalMillis, long compactBytes ) throws IOException
+    {
+        this.codec = codec;
+        this.policy = policy;
+        this.compactBytes = compactBytes;
+        Files.createDirectories( dir );
+        snapshotFile = dir.resolve( "snapshot.avl" );
+        logFile = dir.resolve( "wal.log" );
+
+        if( Files.exists( snapshotFile ) )
+            try( FileChannel in = FileChannel.open( snapshotFile, StandardOpenOption.READ ) )
+            {
+                tree = AvlTree.readFrom( in, codec );
+            }
+        else
+            tree = new AvlTree<AnyType>( );
+
+        log = FileChannel.open( logFile, StandardOpenOption.CREATE,
+                                StandardOpenOption.READ, StandardOpenOption.WRITE );
+        logBytes = replay( );
+        log.truncate( logBytes );   // drop a torn record left by a crash
+        log.position( logBytes );
+
+        if( policy == SyncPolicy.PERIODIC )
+        {
+            syncer = Executors.newSingleThreadScheduledExecutor( r -> {
+                Thread t = new Thread( r, "DurableAvlTree sync" );
+                t.setDaemon( true );
+                return t;
+            } );
+            syncer.scheduleWithFixedDelay( this::backgroundSync, syncIntervalMillis,
+                                           syncIntervalMillis, TimeUnit.MILLISECONDS );
+        }
+        else
+            syncer = null;
+    }
+
+    /**
+     * Internal method to apply every intact record of the log to the tree.
+     * @return the length of the intact part of the log.
+     */
+    private long replay( ) throws IOException
+    {
+        DataInputStream in = new DataInputStream( new BufferedInputStream(
+                Channels.newInputStream( log ), WRITE_BUFFER ) );
+        long good = 0;
+        byte [ ] body = new byte[ 256 ];
+        while( true )
+        {
+            int length, checksum;
+            try
+            {
+                length = in.readInt( );
+                checksum = in.readInt( );
+                if( length < 1 || length > MAX_RECORD )
+                    break;  // garbage at the end of the log
+                if( length > body.length )
+                    body = new byte[ Math.max( length, 2 * body.length ) ];
+                in.readFully( body, 0, length );
+            }
+            catch( EOFException e )
+            {
+                break;      // torn record
+            }
+            crc.reset( );
+            crc.update( body, 0, length );
+            if( (int) crc.getValue( ) != checksum )
+                break;
+
+            DataInputStream item = new DataInputStream( new ByteArrayInputStream( body, 1, length - 1 ) );
+            AnyType x = codec.read( null, item );
+            if( body[ 0 ] == OP_INSERT )
+                tree.insert( x );
+            else if( body[ 0 ] == OP_REMOVE )
+                tree.remove( x );
+            else
+                break;
+            good += 8 + length;
+        }
+        return good;
+    }
+
+    /**
+     * Insert x and log the change; see SyncPolicy for when it is durable.
+     * @return false if x was already present (nothing is logged).
+     */
+    public boolean insert( AnyType x ) throws IOException
+    {
+        return change( OP_INSERT, x );
+    }
+
+    /**
+     * Remove x and log the change; see SyncPolicy for when it is durable.
+     * @return false if x was not present (nothing is logged).
+     */
+    public boolean remove( AnyType x ) throws IOException
+    {
+        return change( OP_REMOVE, x );
+    }
+
+    private boolean change( byte op, AnyType x ) throws IOException
+    {
+        long lsn;
+        boolean compact;
+        synchronized( this )
+        {
+            checkOpen( );
+            if( tree.contains( x ) == ( op == OP_INSERT ) )
+                return false;   // No change; nothing to log
+            append( op, x );
+            if( op == OP_INSERT )
+                tree.insert( x );
+            else
+                tree.remove( x );
+            lsn = appendedLsn;
+            compact = logBytes >= compactBytes;
+            // While a sync is writing its batch, leave the buffer to the
+            // next write so the records reach the log in order
+            if( policy == SyncPolicy.NONE && pending.size( ) >= WRITE_BUFFER && !flushing )
+                writePending( );
+        }
+        if( policy == SyncPolicy.GROUP_COMMIT )
+            awaitDurable( lsn );
+        if( compact )
+            checkpoint( true );
+        return true;
+    }
+
+    /**
+     * Internal method to add a record for op on x to the pending buffer.
+     */
+    private void append( byte op, AnyType x ) throws IOException
+    {
+        record.reset( );
+        recordData.writeByte( op );
+        codec.write( x, null, recordData );
+        recordData.flush( );
+        byte [ ] body = record.toByteArray( );
+        crc.reset( );
+        crc.update( body, 0, body.length );
+
+        DataOutputStream out = new DataOutputStream( pending );
+        out.writeInt( body.length );
+        out.writeInt( (int) crc.getValue( ) );
+        out.write( body );
+        appendedLsn++;
+        logBytes += 8 + body.length;
+    }
+
+    /**
+     * Internal method to wait until record lsn is forced to disk. The first
+     * waiter to find no sync running becomes the leader: it takes every
+     * pending record, writes and forces them with the lock released, and
+     * wakes the others, whose records that sync covered.
+     */
+    private void awaitDurable( long lsn ) throws IOException
+    {
+        while( true )
+        {
+            ByteArrayOutputStream batch;
+            long target;
+            synchronized( this )
+            {
+                while( durableLsn < lsn && flushing && failure == null )
+                {
+                    try
+                    {
+                        wait( );
+                    }
+                    catch( InterruptedException e )
+                    {
+                        Thread.currentThread( ).interrupt( );
+                        throw new InterruptedIOException( "interrupted waiting for log sync" );
+                    }
+                }
+                if( failure != null )
+                    throw failure;
+                if( durableLsn >= lsn )
+                    return;
+                flushing = true;
+                batch = pending;
+                pending = new ByteArrayOutputStream( );
+                target = appendedLsn;
+            }
+
+            IOException error = null;
+            try
+            {
+                write( batch );
+                log.force( false );
+            }
+            catch( IOException e )
+            {
+                error = e;
+            }
+            synchronized( this )
+            {
+                flushing = false;
+                forces++;
+                if( error != null )
+                    failure = error;    // the batch is lost; stop accepting changes
+                else
+                    durableLsn = Math.max( durableLsn, target );
+                notifyAll( );
+            }
+            if( error != null )
+                throw error;
+        }
+    }
+
+    private void write( ByteArrayOutputStream batch ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap( batch.toByteArray( ) );
+        while( buffer.hasRemaining( ) )
+            log.write( buffer );
+    }
+
+    /**
+     * Internal method to write the pending records without forcing them.
+     * Caller holds the lock.
+     */
+    private void writePending( ) throws IOException
+    {
+        write( pending );
+        pending.reset( );
+    }
+
+    private void backgroundSync( )
+    {
+        try
+        {
+            sync( );
+        }
+        catch( IOException e )
+        {
+            // recorded in failure; the next change reports it
+        }
+    }
+
+    /**
+     * Make every change made so far durable.
+     */
+    public void sync( ) throws IOException
+    {
+        long lsn;
+        synchronized( this )
+        {
+            if( closed )
+                return;
+            lsn = appendedLsn;
+        }
+        awaitDurable( lsn );
+    }
+
+    /**
+     * Write the whole tree to a new snapshot and empty the log. The
+     * snapshot is written to a temporary file and renamed over the old
+     * one, so a crash leaves either the old or the new snapshot.
+     */
+    public void checkpoint( ) throws IOException
+    {
+        checkpoint( false );
+    }
+
+    /**
+     * Internal method to take a checkpoint.
+     * @param ifLogFull only if the log is still past compactBytes; several
+     * changes can cross the limit before the first checkpoint empties it.
+     */
+    private synchronized void checkpoint( boolean ifLogFull ) throws IOException
+    {
+        checkOpen( );
+        while( flushing )
+        {
+            try
+            {
+                wait( );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+                throw new InterruptedIOException( "interrupted waiting for log sync" );
+            }
+        }
+        if( ifLogFull && logBytes < compactBytes )
+            return;
+        writePending( );
+
+        Path temp = snapshotFile.resolveSibling( "snapshot.avl.tmp" );
+        try( FileChannel out = FileChannel.open( temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) )
+        {
+            tree.writeTo( out, codec );
+            out.force( true );
+        }
+        Files.move( temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE );
+        forceDirectory( snapshotFile.getParent( ) );    // the rename must be on disk before the log goes
+
+        log.truncate( 0 );
+        log.position( 0 );
+        log.force( true );
+        logBytes = 0;
+        durableLsn = appendedLsn;
+        forces++;
+        notifyAll( );
+    }
+
+    /**
+     * Internal method to force a directory entry change, such as a rename,
+     * to disk. Windows cannot open a directory as a channel; there the
+     * rename is left to the file system.
+     */
+    private static void forceDirectory( Path dir ) throws IOException
+    {
+        FileChannel channel;
+        try
+        {
+            channel = FileChannel.open( dir, StandardOpenOption.READ );
+        }
+        catch( IOException e )
+        {
+            return;
+        }
+        try( FileChannel in = channel )
+        {
+            in.force( true );
+        }
+    }
+
+    public synchronized boolean contains( AnyType x )
+    {
+        return tree.contains( x );
+    }
+
+    public synchronized AnyType findMin( )
+    {
+        return tree.findMin( );
+    }
+
+    public synchronized AnyType findMax( )
+    {
+        return tree.findMax( );
+    }
+
+    public synchronized int size( )
+    {
+        return tree.size( );
+    }
+
+    public synchronized boolean isEmpty( )
+    {
+        return tree.isEmpty( );
+    }
+
+    /**
+     * Return the number of times the log has been forced to disk.
+     */
+    public synchronized long getForceCount( )
+    {
+        return forces;
+    }
+
+    private void checkOpen( ) throws IOException
+    {
+        if( closed )
+            throw new IOException( "tree is closed" );
+        if( failure != null )
+            throw failure;
+    }
+
+    /**
+     * Make every change durable and release the log file. The background
+     * sync is allowed to finish rather than interrupted: an interrupt
+     * during channel I/O closes the log, and the final sync would fail.
+     */
+    public void close( ) throws IOException
+    {
+        if( syncer != null )
+            stopSyncer( );
+        try
+        {
+            sync( );
+        }
+        finally
+        {
+            synchronized( this )
+            {
+                closed = true;
+                log.close( );
+            }
+        }
+    }
+
+    /**
+     * Internal method to cancel the periodic sync and wait for a running
+     * one to finish. An interrupt of the caller is kept for later.
+     */
+    private void stopSyncer( )
+    {
+        syncer.shutdown( );
+        boolean interrupted = false;
+        while( true )
+        {
+            try
+            {
+                if( syncer.awaitTermination( 1, TimeUnit.SECONDS ) )
+                    break;
+            }
+            catch( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if( interrupted )
+            Thread.currentThread( ).interrupt( );
+    }
+
+
+        // Test program
+    public static void main( String [ ] args ) throws Exception
+    {
+        final int NUMS = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 20000;
+        int maxThreads = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 8;
+
+        for( SyncPolicy policy : SyncPolicy.values( ) )
+        {
+            System.out.println( "\n" + policy + ":" );
+            for( int threads = 1; ; threads = Math.min( threads * 2, maxThreads ) )
+            {
+                Path dir = Files.createTempDirectory( "durableavl" );
+                final DurableAvlTree<Integer> t = new DurableAvlTree<Integer>( dir, KeyCodec.INTEGER, policy );
+                final int nThreads = threads;
+                Thread [ ] workers = new Thread[ nThreads ];
+                for( int w = 0; w < nThreads; w++ )
+                {
+                    final int first = w;
+                    workers[ w ] = new Thread( ( ) -> {
+                        try
+                        {
+                            for( int i = first; i < NUMS; i += nThreads )
+                                t.insert( i );
+                        }
+                        catch( IOException e )
+                        {
+                            System.out.println( "Insert error! " + e );
+                        }
+                    } );
+                }
+
+                long startTime = System.nanoTime( );
+                for( Thread w : workers )
+                    w.start( );
+                for( Thread w : workers )
+                    w.join( );
+                long elapsed = System.nanoTime( ) - startTime;
+                System.out.println( "Threads " + nThreads + ": " + (long) ( NUMS / ( elapsed / 1e9 ) )
+                        + " inserts/second, " + t.getForceCount( ) + " forces." );
+                t.close( );
+
+                DurableAvlTree<Integer> reopened = new DurableAvlTree<Integer>( dir, KeyCodec.INTEGER, policy );
+                if( reopened.size( ) != NUMS || reopened.findMax( ) != NUMS - 1 )
+                    System.out.println( "Replay error!" );
+                reopened.checkpoint( );
+                reopened.close( );
+                for( Path p : new Path[ ] { dir.resolve( "wal.log" ), dir.resolve( "snapshot.avl" ), dir } )
+                    Files.deleteIfExists( p );
+
+                if( threads >= maxThreads )
+                    break;
+            }
+        }
+
+            // Close while the background sync is writing: every insert
+            // must be there when the tree is opened again
+        final int CYCLES = 300;
+        final int PER_CYCLE = 5000;
+        for( int i = 0; i < CYCLES; i++ )
+        {
+            Path dir = Files.createTempDirectory( "durableavl" );
+            DurableAvlTree<Integer> t = new DurableAvlTree<Integer>( dir, KeyCodec.INTEGER,
+                                                                     SyncPolicy.PERIODIC, 1, 64L << 20 );
+            for( int j = 0; j < PER_CYCLE; j++ )
+                t.insert( j );
+            t.close( );
+
+            DurableAvlTree<Integer> reopened = new DurableAvlTree<Integer>( dir, KeyCodec.INTEGER, SyncPolicy.NONE );
+            if( reopened.size( ) != PER_CYCLE )
+                System.out.println( "Close lost inserts under PERIODIC!" );
+            reopened.close( );
+            for( Path p : new Path[ ] { dir.resolve( "wal.log" ), dir } )
+                Files.deleteIfExists( p );
+        }
+    }
+}
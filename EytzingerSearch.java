@@ -0,0 +1,178 @@
+/*
+ *  Problem: Testing running times of binary search in Eytzinger order
+ *  Description: This program measures the running times of searches on a sorted
+ *               array of numbers stored in Eytzinger (breadth-first) order, against
+ *               testSearch.binarySearch and Arrays.binarySearch on the sorted array.
+ *
+ *  Input: array sizes (default 10000 to 10000000)
+ *  Output: running times of one million searches, half of them for missing numbers
+ *
+ *  Visible data fields:
+ * none.
+ *
+ *  Visible methods:
+ * public EytzingerSearch(int[] sorted)   --> copy a sorted array into Eytzinger order
+ * public boolean contains(int key)       --> true if key is in the array
+ * public int lowerBound(int key)         --> index in sorted of the first number >= key,
+ *                                            or sorted.length if there is none
+ * public int size()
+ * public static void main(String[] args)
+ *
+ *
+ *   Remarks
+ *   -------
+ * The numbers are laid out as a perfectly balanced search tree stored
+ * breadth-first: the root at index 1 and the children of index k at 2k and
+ * 2k+1. A search always runs to the bottom of the tree, doing
+ * k = 2k + (b[k] < key), which the JIT compiles to a compare and an add with
+ * no branch to mispredict. The position of the answer is then recovered
+ * from k: the last level where the search went left is found by shifting
+ * off the trailing 1 bits (the right turns) and one more bit.
+ * rank[k] holds the index in the sorted array of b[k], so lowerBound
+ * answers in terms of the original array.
+ *
+ * The first levels, which every search visits, sit together at the front
+ * of the array, so they stay in cache; with the classic layout they are
+ * spread over the whole array. The 16 descendants four levels below k are
+ * the adjacent entries 16k..16k+15, one cache line, which is what a C
+ * version prefetches. Java has no prefetch instruction, so each step loads
+ * b[16 min(k, n/16)] instead; nothing waits for that load, so the line
+ * arrives while the next four levels are searched. Below the fourth-to-last
+ * level the index is clamped to one fixed entry at most n, which is always
+ * in bounds and in cache, and clamping k before the shift cannot overflow.
+ * The loaded values are summed in a local and the sum is compared with two
+ * fields that never hold the same value, the trick a benchmark blackhole
+ * uses: the JIT cannot prove the test false, so it keeps the loads, and
+ * since the fields are only read, concurrent searches share nothing.
+ * Without them the search is slower than Arrays.binarySearch beyond a few
+ * million numbers, whose branchy loop gets the same effect from speculation.
+ *
+ * Arrays of fewer than 2^30 numbers are supported. The default sizes stop at
+ * 10 million; 100 million needs about 1.2 GB of heap (-Xmx2g) and can be
+ * given as an argument.
+ */
+import java.util.*;
+
+public class EytzingerSearch {
+    private final int[] b;      // b[1..n] in Eytzinger order
+    private final int[] rank;   // rank[k] = index of b[k] in the sorted array
+    private final int n;
+    private int sinkA = 0;      // sinkA != sinkB always; see lowerBoundIndex
+    private int sinkB = 1;
+
+    public EytzingerSearch(int[] sorted) {
+        if (sorted.length >= (1 << 30)) {
+            throw new IllegalArgumentException("too many numbers: " + sorted.length);
+        }
+        n = sorted.length;
+        b = new int[n + 1];
+        rank = new int[n + 1];
+        fill(sorted, 0, 1);
+    }
+
+    // place the subtree rooted at k; returns the index in sorted of the next number
+    private int fill(int[] sorted, int next, int k) {
+        if (k <= n) {
+            next = fill(sorted, next, 2 * k);
+            b[k] = sorted[next];
+            rank[k] = next++;
+            next = fill(sorted, next, 2 * k + 1);
+        }
+        return next;
+    }
+
+    // Eytzinger index of the first number >= key, or 0 if there is none
+    private int lowerBoundIndex(int key) {
+        int k = 1;
+        int touch = 0;
+        while (k <= n) {
+            touch += b[Math.min(k, n >>> 4) << 4];  // fetch the line four levels down
+            k = 2 * k + (b[k] < key ? 1 : 0);
+        }
+        if (touch == sinkA && touch == sinkB) {
+            throw new AssertionError();     // never happens; keeps the loads
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public boolean contains(int key) {
+        int k = lowerBoundIndex(key);
+        return k != 0 && b[k] == key;
+    }
+
+    public int lowerBound(int key) {
+        int k = lowerBoundIndex(key);
+        return k == 0 ? n : rank[k];
+    }
+
+    public int size() {
+        return n;
+    }
+
+	public static void main(String[] args){
+        int[] sizes = {10000, 100000, 1000000, 10000000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        final int SEARCHES = 1000000;
+
+        for (int size : sizes) {
+            // even numbers 0,2,...,2*(size-1); odd keys are missing
+            int[] numbers = new int[size];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = 2 * i;
+            }
+            Random random = new Random(size);
+            int[] keys = new int[SEARCHES];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextInt(2 * size + 1);
+            }
+
+            long startTime = System.nanoTime();
+            EytzingerSearch eytzinger = new EytzingerSearch(numbers);
+            long buildTime = System.nanoTime() - startTime;
+
+            for (int k = -1; k <= 2 * size; k += Math.max(1, size / 1000)) {
+                int expected = Arrays.binarySearch(numbers, k);
+                if (eytzinger.lowerBound(k) != (expected >= 0 ? expected : -expected - 1)) {
+                    System.out.println("lowerBound error!");
+                }
+            }
+
+            System.out.println("\nSize " + size + " (build " + buildTime + " nanoseconds):");
+            for (int round = 0; round < 3; round++) {   // the first rounds warm up the JIT
+                int found1 = 0, found2 = 0, found3 = 0;
+
+                startTime = System.nanoTime();
+                for (int key : keys) {
+                    if (testSearch.binarySearch(numbers, key)) found1++;
+                }
+                long binaryTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int key : keys) {
+                    if (Arrays.binarySearch(numbers, key) >= 0) found2++;
+                }
+                long arraysTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int key : keys) {
+                    if (eytzinger.contains(key)) found3++;
+                }
+                long eytzingerTime = System.nanoTime() - startTime;
+
+                if (found1 != found2 || found2 != found3) {
+                    System.out.println("Search error!");
+                }
+                if (round == 2) {
+                    System.out.println("The time taken by Binary Search is " + binaryTime + " nanoseconds.");
+                    System.out.println("The time taken by Arrays.binarySearch is " + arraysTime + " nanoseconds.");
+                    System.out.println("The time taken by Eytzinger Search is " + eytzingerTime + " nanoseconds.");
+                }
+            }
+        }
+	}
+}
@@ -0,0 +1,238 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of a read-only search tree laid out in one array
+ *  Description: This Problem measures running time of searches in a BinarySearchTree
+ *               and in a frozen copy of it stored in Eytzinger (breadth-first) order.
+ *
+ *  Input: Number of Nodes, number of searches
+ *  Output: running times to find nodes in the pointer tree and in the frozen copy
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * boolean contains( x )  --> Return true if x is present
+ * Comparable findMin( )  --> Return smallest item
+ * Comparable findMax( )  --> Return largest item
+ * Comparable floor( x )  --> Return largest item <= x, or null
+ * Comparable ceiling( x ) --> Return smallest item >= x, or null
+ * int size( )            --> Return number of items
+ * boolean isEmpty( )     --> Return true if empty; else false
+ *
+ *   Remarks
+ *   -------
+ * Built by BinarySearchTree.freeze( ). The items are stored in the order a
+ * breadth-first walk of a perfectly balanced tree visits them: the root at
+ * index 1 and the children of index i at 2i and 2i+1. A search needs no
+ * pointers: it goes from i to 2i or 2i+1 after each compare. The first few
+ * levels, which every search visits, share a handful of cache lines, and
+ * the tree is as shallow as possible whatever shape the source tree had.
+ *
+ * In Java the array holds references, so each compare still loads the item
+ * itself; the array saves the node loads and the child-pointer loads of the
+ * pointer tree. The copy is immutable and safe to share between threads.
+ *************************************************************************/
+
+import java.util.Random;
+
+public class FrozenBinarySearchTree<AnyType extends Comparable<? super AnyType>>
+{
+    private final Object [ ] items;     // items[ 1..n ] in Eytzinger order
+    private final int n;
+
+    /**
+     * Construct from items sorted in increasing order, without duplicates.
+     */
+    FrozenBinarySearchTree( Object [ ] sorted, int count )
+    {
+        n = count;
+        items = new Object[ n + 1 ];
+        fill( sorted, 0, 1 );
+    }
+
+    /**
+     * Internal method to place the subtree rooted at index i in order.
+     * @param next index in sorted of the next item to place.
+     * @return index in sorted of the item after this subtree.
+     */
+    private int fill( Object [ ] sorted, int next, int i )
+    {
+        if( i <= n )
+        {
+            next = fill( sorted, next, 2 * i );
+            items[ i ] = sorted[ next++ ];
+            next = fill( sorted, next, 2 * i + 1 );
+        }
+        return next;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private AnyType item( int i )
+    {
+        return (AnyType) items[ i ];
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( AnyType x )
+    {
+        int i = 1;
+        while( i <= n )
+        {
+            int compareResult = x.compareTo( item( i ) );
+
+            if( compareResult == 0 )
+                return true;    // Match
+            i = 2 * i + ( compareResult > 0 ? 1 : 0 );
+        }
+        return false;   // No match
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item.
+     */
+    public AnyType findMin( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        int i = 1;
+        while( 2 * i <= n )
+            i = 2 * i;
+        return item( i );
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     */
+    public AnyType findMax( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        int i = 1;
+        while( 2 * i + 1 <= n )
+            i = 2 * i + 1;
+        return item( i );
+    }
+
+    /**
+     * Find the largest item not greater than x.
+     * @return the item, or null if every item is greater than x.
+     */
+    public AnyType floor( AnyType x )
+    {
+        AnyType best = null;
+        int i = 1;
+        while( i <= n )
+        {
+            int compareResult = x.compareTo( item( i ) );
+
+            if( compareResult == 0 )
+                return item( i );
+            if( compareResult > 0 )
+            {
+                best = item( i );   // Below x; look for a closer one on the right
+                i = 2 * i + 1;
+            }
+            else
+                i = 2 * i;
+        }
+        return best;
+    }
+
+    /**
+     * Find the smallest item not less than x.
+     * @return the item, or null if every item is less than x.
+     */
+    public AnyType ceiling( AnyType x )
+    {
+        AnyType best = null;
+        int i = 1;
+        while( i <= n )
+        {
+            int compareResult = x.compareTo( item( i ) );
+
+            if( compareResult == 0 )
+                return item( i );
+            if( compareResult < 0 )
+            {
+                best = item( i );   // Above x; look for a closer one on the left
+                i = 2 * i;
+            }
+            else
+                i = 2 * i + 1;
+        }
+        return best;
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return n;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return n == 0;
+    }
+
+
+        // Test program
+    public static void main( String [ ] args )
+    {
+        final int NUMS = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000000;
+        final int SEARCHES = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 1000000;
+        Random random = new Random( 1 );
+
+        BinarySearchTree<Integer> t = new BinarySearchTree<Integer>( );
+        for( int i = 0; i < NUMS; i++ )
+            t.insert( random.nextInt( 2 * NUMS ) * 2 );     // even keys only
+
+        long startTime = System.nanoTime( );
+        FrozenBinarySearchTree<Integer> frozen = t.freeze( );
+        System.out.println( "\nTime Taken by Freeze " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        Integer [ ] keys = new Integer[ SEARCHES ];
+        for( int i = 0; i < SEARCHES; i++ )
+            keys[ i ] = random.nextInt( 4 * NUMS );
+
+        for( int round = 0; round < 3; round++ )    // the first rounds warm up the JIT
+        {
+            int found = 0;
+            startTime = System.nanoTime( );
+            for( Integer k : keys )
+                if( t.contains( k ) )
+                    found++;
+            long pointerTime = System.nanoTime( ) - startTime;
+
+            int frozenFound = 0;
+            startTime = System.nanoTime( );
+            for( Integer k : keys )
+                if( frozen.contains( k ) )
+                    frozenFound++;
+            long frozenTime = System.nanoTime( ) - startTime;
+
+            if( found != frozenFound )
+                System.out.println( "Search error!" );
+            System.out.println( "\nRound " + round + ": Time Taken by Find " + pointerTime
+                    + " nanoseconds (pointer tree), " + frozenTime + " nanoseconds (frozen)." );
+        }
+
+        int odd = 2 * NUMS + 1;
+        Integer below = frozen.floor( odd ), above = frozen.ceiling( odd );
+        if( frozen.size( ) != t.size( ) || !frozen.findMin( ).equals( t.findMin( ) ) ||
+                !frozen.findMax( ).equals( t.findMax( ) ) || below == null || above == null ||
+                below != odd - 1 && t.contains( odd - 1 ) || above != odd + 1 && t.contains( odd + 1 ) )
+            System.out.println( "FindMin, FindMax, floor or ceiling error!" );
+    }
+}
@@ -15,6 +15,23 @@
  * public int hashFunc(int key)    --> Hash function for deciding number of keys 
  * public void insert(Link theLink) --> insert into hash table   
  * public void delete(int key)      --> Delete from hash table 
+ * public Link find(int key)        --> Find link with key, null if absent
+ * public int size()                --> Number of links stored
+ * public void insertAll(int[] keys) --> insert a batch of keys
+ * public void findAll(int[] keys, boolean[] out) --> out[i] = keys[i] is present
+ * public void enableBloomFilter(long expectedCount, double falsePositiveRate)
+ *                                  --> Put a Bloom filter in front of find
+ * public BlockedBloomFilter getBloomFilter() --> The filter and its hit counters, or null
+ * public HashChainStats stats()   --> Chain length histogram and probe counters
+ * public void resetStats()         --> Zero the probe counters
+ * public ObjectName registerMBean(String name) --> Publish stats() over JMX
+ * public void save(String fileName) --> Write the table to a snapshot file
+ * public static HashChain load(String fileName) --> Rebuild a table from a snapshot
+ *
+ * The table grows when the number of links exceeds loadFactor * arraySize
+ * (0.75 unless given to the constructor). Growing is incremental: the old
+ * table stays live and every insert, find and delete moves a few of its
+ * buckets into the new one, so there is never a pause to rehash everything.
  *
  *   Remarks
  *   -------
@@ -92,26 +109,19 @@
  *************************************************************************/
 
 import java.io.IOException;
-
-class Link {
-  private int data;
-  public Link next;
-
-  public Link(int d) {
-    data = d;
-  }
-
-  public int getKey() {
-    return data;
-  }
-
-  public void displayLink() {
-    System.out.print(data + " L");
-  }
-}
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 class SortedList {
   private Link first;
+  private int size;      // number of links in the list
+  int lastWalk;          // links stepped over by the last insert, insertSorted or find
   public SortedList() {
     first = null;
   }
@@ -120,11 +130,13 @@ class SortedList {
     int key = theLink.getKey();
     Link previous = null; // start at first
     Link current = first;
+    int walk = 0;
     // until end of list,
         //or current bigger than key,
     while (current != null && key > current.getKey()) { 
       previous = current;
       current = current.next; // go to next item
+      walk++;
     }
     if (previous == null) // if beginning of list,
       first = theLink; 
@@ -132,9 +144,11 @@ class SortedList {
       // not at beginning,
       previous.next = theLink; 
     theLink.next = current; 
+    size++;
+    lastWalk = walk;
   }
 
-  public void delete(int key){ 
+  public boolean delete(int key){ 
     Link previous = null; 
     Link current = first;
 
@@ -142,24 +156,78 @@ class SortedList {
       previous = current;
       current = current.next; 
     }
+    if (current == null) // not in list
+      return false;
     // disconnect link
     if (previous == null) //   if beginning of list delete first link
       first = first.next;       
     else
       //   not at beginning
       previous.next = current.next; //delete current link
+    size--;
+    return true;
+  }
+
+  // insert keys[from..to), which must be ascending, in one walk of the list
+  public void insertSorted(int[] keys, int from, int to) {
+    Link previous = null;
+    Link current = first;
+    int walk = 0;
+    for (int i = from; i < to; i++) {
+      int key = keys[i];
+      while (current != null && key > current.getKey()) {
+        previous = current;
+        current = current.next;
+        walk++;
+      }
+      Link theLink = new Link(key);
+      if (previous == null)
+        first = theLink;
+      else
+        previous.next = theLink;
+      theLink.next = current;
+      previous = theLink;
+    }
+    size += to - from;
+    lastWalk = walk;
+  }
+
+  // unlink and return the first link, or null if the list is empty
+  public Link removeFirst() {
+    Link head = first;
+    if (head != null) {
+      first = head.next;
+      head.next = null;
+      size--;
+    }
+    return head;
   }
 
   public Link find(int key) {
     Link current = first; 
-    while (current != null && current.getKey() <= key) { // or key too small,
-      if (current.getKey() == key) // found, return link
+    int walk = 0;
+    while (current != null) {
+      walk++;
+      if (current.getKey() > key) // key too small, stop
+        break;
+      if (current.getKey() == key) { // found, return link
+        lastWalk = walk;
         return current;  
+      }
       current = current.next; // go to next item
     }
+    lastWalk = walk;
     return null; // cannot find it
   }
 
+  public Link getFirst() {
+    return first;
+  }
+
+  public int size() {
+    return size;
+  }
+
   public void displayList() {
     System.out.print("List: ");
     Link current = first;
@@ -172,45 +240,540 @@ class SortedList {
 }
 
 public class HashChain {
+  private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+  private static final int MIGRATE_BUCKETS = 4; // old buckets moved per operation
+
   private SortedList[] hashArray; 
 
   private int arraySize;
 
+  private final float loadFactor;
+  private int count;         // number of links stored in both tables
+  private int threshold;     // grow when count exceeds this
+
+  // While a resize is in progress the old table stays live; buckets below
+  // migrateIndex have already been moved into hashArray.
+  private SortedList[] oldArray;
+  private int oldSize;
+  private int migrateIndex;
+
+  // Probe counters; plain fields, so they cost an add per call
+  private long insertCalls;
+  private long insertLinksWalked;  // links stepped over by SortedList inserts
+  private long findCalls;
+  private long findLinksTraversed; // links compared by finds
+
+  // Chain length counts, updated by every change to a chain so stats()
+  // never scans the bucket array: chainsOfLength[i] is the number of chains
+  // of length i >= 1 in both tables, usedBuckets the non-empty buckets of
+  // hashArray and maxChain the longest chain.
+  private int[] chainsOfLength = new int[HashChainStats.HISTOGRAM_BINS];
+  private int usedBuckets;
+  private int maxChain;
+
+  // optional filter that answers most finds of absent keys without a probe
+  private BlockedBloomFilter bloom;
+
   public HashChain(int size) {
+    this(size, DEFAULT_LOAD_FACTOR);
+  }
+
+  public HashChain(int size, float loadFactor) {
+    if (size <= 0 || !(loadFactor > 0))
+      throw new IllegalArgumentException("size " + size + ", load factor " + loadFactor);
+    this.loadFactor = loadFactor;
     arraySize = size;
+    // buckets are created on first use, so growing never has to allocate
+    // millions of empty lists in one step
     hashArray = new SortedList[arraySize];
-    for (int i = 0; i < arraySize; i++)
-      hashArray[i] = new SortedList(); 
+    threshold = (int) Math.min(Integer.MAX_VALUE, (long) (arraySize * loadFactor));
   }
 
   public void displayTable() {
-    for (int j = 0; j < arraySize; j++) {
-      System.out.print(j + ". "); 
-      hashArray[j].displayList(); 
+    if (oldArray != null) {
+      System.out.println("Old table (resize in progress):");
+      for (int j = migrateIndex; j < oldSize; j++)
+        displayBucket(j, oldArray[j]);
+      System.out.println("New table:");
     }
+    for (int j = 0; j < arraySize; j++)
+      displayBucket(j, hashArray[j]);
+  }
+
+  private void displayBucket(int j, SortedList list) {
+    System.out.print(j + ". "); 
+    if (list != null)
+      list.displayList(); 
+    else
+      System.out.println("List: ");
   }
 
   public int hashFunc(int key) {
     return key % arraySize;
   }
 
+  public int size() {
+    return count;
+  }
+
   public void insert(Link theLink) {
+    migrate();
     int key = theLink.getKey();
     int hashVal = hashFunc(key); 
-    hashArray[hashVal].insert(theLink); 
+    SortedList list = hashArray[hashVal];
+    if (list == null)
+      list = hashArray[hashVal] = new SortedList();
+    list.insert(theLink); 
+    chainResized(list.size() - 1, list.size(), true);
+    if (bloom != null)
+      bloom.add(key);
+    insertCalls++;
+    insertLinksWalked += list.lastWalk;
+    if (++count > threshold && oldArray == null)
+      startResize();
   }
 
   public void delete(int key) {
+    migrate();
     int hashVal = hashFunc(key); // hash the key
-    hashArray[hashVal].delete(key); 
+    SortedList list = hashArray[hashVal];
+    if (list != null && list.delete(key)) {
+      chainResized(list.size() + 1, list.size(), true);
+      count--;
+      return;
+    }
+    list = oldBucket(key);
+    if (list != null && list.delete(key)) {
+      chainResized(list.size() + 1, list.size(), false);
+      count--;
+    }
+  }
+
+  // record that a chain of hashArray (inNewTable) or of oldArray went from
+  // one length to another
+  private void chainResized(int from, int to, boolean inNewTable) {
+    if (from == to)
+      return;
+    if (from > 0)
+      chainsOfLength[from]--;
+    if (to > 0) {
+      if (to >= chainsOfLength.length)
+        chainsOfLength = Arrays.copyOf(chainsOfLength, Math.max(to + 1, 2 * chainsOfLength.length));
+      chainsOfLength[to]++;
+    }
+    if (inNewTable) {
+      if (from == 0)
+        usedBuckets++;
+      else if (to == 0)
+        usedBuckets--;
+    }
+    if (to > maxChain)
+      maxChain = to;
+    else
+      while (maxChain > 0 && chainsOfLength[maxChain] == 0)
+        maxChain--;
   }
 
   public Link find(int key) {
+    migrate();
+    findCalls++;
+    if (bloom != null && !bloom.mightContain(key))
+      return null; // definitely never inserted
     int hashVal = hashFunc(key); // hash the key
-    Link theLink = hashArray[hashVal].find(key); // get link
+    SortedList list = hashArray[hashVal];
+    Link theLink = null;
+    if (list != null) {
+      theLink = list.find(key); // get link
+      findLinksTraversed += list.lastWalk;
+    }
+    if (theLink == null) {
+      list = oldBucket(key);
+      if (list != null) {
+        theLink = list.find(key);
+        findLinksTraversed += list.lastWalk;
+      }
+    }
+    if (theLink == null && bloom != null)
+      bloom.recordFalsePositive();
     return theLink;
   }
 
+  // Keys already in the table are added, so the filter can be switched on
+  // at any time. Size it for the final number of keys: past that count the
+  // false positive rate climbs. Deleted keys stay in the filter, so a find
+  // of one is counted as a false positive.
+  public void enableBloomFilter(long expectedCount, double falsePositiveRate) {
+    BlockedBloomFilter filter = new BlockedBloomFilter(Math.max(expectedCount, count), falsePositiveRate);
+    for (int pass = 0; pass < 2; pass++) {
+      SortedList[] lists = pass == 0 ? hashArray : oldArray;
+      if (lists == null)
+        continue;
+      for (int j = pass == 0 ? 0 : migrateIndex; j < lists.length; j++) {
+        SortedList list = lists[j];
+        for (Link current = list == null ? null : list.getFirst();
+            current != null; current = current.next)
+          filter.add(current.getKey());
+      }
+    }
+    bloom = filter;
+  }
+
+  public BlockedBloomFilter getBloomFilter() {
+    return bloom;
+  }
+
+  // bucket in the old table that may still hold key, or null
+  private SortedList oldBucket(int key) {
+    if (oldArray == null)
+      return null;
+    int oldVal = key % oldSize;
+    return oldVal >= migrateIndex ? oldArray[oldVal] : null;
+  }
+
+  // Double the table. Entries are moved a few buckets at a time by migrate()
+  // so no single call pays for rehashing the whole table.
+  private void startResize() {
+    startResize(2L * arraySize);
+  }
+
+  private void startResize(long newSize) {
+    newSize = Math.min(newSize, Integer.MAX_VALUE - 8);
+    if (newSize == arraySize)
+      return; // cannot grow any further
+    oldArray = hashArray;
+    oldSize = arraySize;
+    migrateIndex = 0;
+    arraySize = (int) newSize;
+    hashArray = new SortedList[arraySize];
+    usedBuckets = 0; // every chain is in the old table now
+    threshold = (int) Math.min(Integer.MAX_VALUE, (long) (arraySize * loadFactor));
+  }
+
+  private void migrate() {
+    if (oldArray == null)
+      return;
+    int end = Math.min(oldSize, migrateIndex + MIGRATE_BUCKETS);
+    for (; migrateIndex < end; migrateIndex++) {
+      SortedList list = oldArray[migrateIndex];
+      if (list == null)
+        continue;
+      chainResized(list.size(), 0, false);
+      Link theLink;
+      while ((theLink = list.removeFirst()) != null) {
+        int hashVal = hashFunc(theLink.getKey());
+        SortedList target = hashArray[hashVal];
+        if (target == null)
+          target = hashArray[hashVal] = new SortedList();
+        target.insert(theLink);
+        chainResized(target.size() - 1, target.size(), true);
+      }
+      oldArray[migrateIndex] = null;
+    }
+    if (migrateIndex == oldSize) {
+      oldArray = null; // resize complete
+      oldSize = 0;
+      migrateIndex = 0;
+    }
+  }
+
+  // Batches are processed in chunks so the sort buffer stays small.
+  private static final int BATCH_CHUNK = 1 << 20;
+
+  // Sort key for batch operations: bucket in the high half so every bucket is
+  // visited once and in address order, key in the low half (sign bit flipped
+  // so the unsigned order matches int order) so each bucket's keys come out
+  // ascending and the chain is walked only once.
+  private static long bucketOrder(int hashVal, int key) {
+    return ((long) hashVal << 32) | ((key ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+  }
+
+  private static int keyOf(long order) {
+    return (int) order ^ Integer.MIN_VALUE;
+  }
+
+  public void insertAll(int[] keys) {
+    int n = keys.length;
+    if (oldArray != null || ((long) count + n > threshold && count > n)) {
+      // a resize is running or would be needed for a small batch on a
+      // big table: keep the incremental path
+      for (int key : keys)
+        insert(new Link(key));
+      return;
+    }
+    if ((long) count + n > threshold) {
+      // rehashing what is already stored costs no more than the batch itself
+      startResize(Math.max(2L * arraySize, (long) Math.ceil((count + n) / loadFactor) + 1));
+      finishResize();
+    }
+
+    long[] order = new long[Math.min(n, BATCH_CHUNK)];
+    int[] bucketKeys = new int[16];
+    for (int start = 0; start < n; start += order.length) {
+      int m = Math.min(order.length, n - start);
+      for (int i = 0; i < m; i++) {
+        int key = keys[start + i];
+        order[i] = bucketOrder(hashFunc(key), key);
+        if (bloom != null)
+          bloom.add(key);
+      }
+      Arrays.sort(order, 0, m);
+
+      for (int i = 0; i < m; ) {
+        int hashVal = (int) (order[i] >>> 32);
+        int j = i;
+        while (j < m && (int) (order[j] >>> 32) == hashVal)
+          j++;
+        if (j - i > bucketKeys.length)
+          bucketKeys = new int[Math.max(j - i, 2 * bucketKeys.length)];
+        for (int k = i; k < j; k++)
+          bucketKeys[k - i] = keyOf(order[k]);
+        SortedList list = hashArray[hashVal];
+        if (list == null)
+          list = hashArray[hashVal] = new SortedList();
+        list.insertSorted(bucketKeys, 0, j - i);
+        chainResized(list.size() - (j - i), list.size(), true);
+        insertLinksWalked += list.lastWalk;
+        i = j;
+      }
+    }
+    count += n;
+    insertCalls += n;
+  }
+
+  public void findAll(int[] keys, boolean[] out) {
+    if (out.length < keys.length)
+      throw new IllegalArgumentException("out has " + out.length + " slots for " + keys.length + " keys");
+    if (oldArray != null) {
+      for (int i = 0; i < keys.length; i++)
+        out[i] = find(keys[i]) != null;
+      return;
+    }
+
+    int n = keys.length;
+    // bucket in the high half, position in the batch in the low half
+    long[] order = new long[Math.min(n, BATCH_CHUNK)];
+    for (int start = 0; start < n; start += order.length) {
+      int m = 0;
+      int chunkEnd = Math.min(start + order.length, n);
+      for (int i = start; i < chunkEnd; i++) {
+        if (bloom != null && !bloom.mightContain(keys[i]))
+          out[i] = false; // definitely never inserted
+        else
+          order[m++] = ((long) hashFunc(keys[i]) << 32) | i;
+      }
+      Arrays.sort(order, 0, m);
+
+      for (int i = 0; i < m; ) {
+        int hashVal = (int) (order[i] >>> 32);
+        int j = i;
+        while (j < m && (int) (order[j] >>> 32) == hashVal)
+          j++;
+        SortedList list = hashArray[hashVal];
+        if (list == null) {
+          for (int k = i; k < j; k++) {
+            out[(int) order[k]] = false;
+            if (bloom != null)
+              bloom.recordFalsePositive();
+          }
+        } else if (j - i == 1) {
+          int pos = (int) order[i];
+          out[pos] = list.find(keys[pos]) != null;
+          findLinksTraversed += list.lastWalk;
+          if (bloom != null && !out[pos])
+            bloom.recordFalsePositive();
+        } else {
+          // put the group in key order, then walk the chain once
+          for (int k = i + 1; k < j; k++) {
+            long cur = order[k];
+            int key = keys[(int) cur];
+            int p = k - 1;
+            while (p >= i && keys[(int) order[p]] > key) {
+              order[p + 1] = order[p];
+              p--;
+            }
+            order[p + 1] = cur;
+          }
+          Link current = list.getFirst();
+          long walk = 0;
+          for (int k = i; k < j; k++) {
+            int pos = (int) order[k];
+            int key = keys[pos];
+            while (current != null && current.getKey() < key) {
+              current = current.next;
+              walk++;
+            }
+            out[pos] = current != null && current.getKey() == key;
+            if (bloom != null && !out[pos])
+              bloom.recordFalsePositive();
+          }
+          findLinksTraversed += walk + (current != null ? 1 : 0);
+        }
+        i = j;
+      }
+    }
+    findCalls += n;
+  }
+
+  // Built from the chain length counts, so this costs O(maxChain) and never
+  // looks at the bucket array. The table is not thread-safe: called from
+  // another thread (the MXBean) while the table is changing, the numbers may
+  // be stale or a little inconsistent with each other, but the call is cheap
+  // and touches only fields of this object.
+  public HashChainStats stats() {
+    long[] histogram = new long[HashChainStats.HISTOGRAM_BINS];
+    int[] lengths = chainsOfLength;
+    int max = Math.min(maxChain, lengths.length - 1);
+    int used = 0;
+    for (int i = 1; i <= max; i++) {
+      histogram[Math.min(i, histogram.length - 1)] += lengths[i];
+      used += lengths[i];
+    }
+    int buckets = arraySize;
+    // old buckets do not count as buckets of the table, empty or not
+    histogram[0] = buckets - usedBuckets;
+    return new HashChainStats(count, buckets, used, max, histogram,
+        insertCalls, insertLinksWalked, findCalls, findLinksTraversed, oldArray != null);
+  }
+
+  public void resetStats() {
+    insertCalls = insertLinksWalked = findCalls = findLinksTraversed = 0;
+  }
+
+  public ObjectName registerMBean(String name) throws JMException {
+    ObjectName objectName = new ObjectName(name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(new HashChainStatsMXBean() {
+      public HashChainStats getStats() {
+        return stats();
+      }
+
+      public int getMaxChainLength() {
+        return maxChain;
+      }
+
+      public double getAverageLinksPerFind() {
+        return findCalls == 0 ? 0 : (double) findLinksTraversed / findCalls;
+      }
+
+      public void resetStats() {
+        HashChain.this.resetStats();
+      }
+    }, objectName);
+    return objectName;
+  }
+
+  // Snapshot file layout (big-endian ints), shared with MappedHashChain:
+  //   SNAPSHOT_MAGIC, arraySize, count, load factor (float bits),
+  //   arraySize + 1 bucket offsets into the key section,
+  //   count keys, each bucket's keys in ascending order
+  static final int SNAPSHOT_MAGIC = 0x48435332; // "HCS2"
+  static final int SNAPSHOT_HEADER_INTS = 4;
+  private static final int IO_BUFFER_SIZE = 1 << 18;
+
+  // move every remaining bucket of an in-progress resize
+  private void finishResize() {
+    while (oldArray != null)
+      migrate();
+  }
+
+  public void save(String fileName) throws IOException {
+    finishResize();
+    int[] offsets = new int[arraySize + 1];
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+
+      // keys first, remembering where each bucket starts
+      channel.position(4L * (SNAPSHOT_HEADER_INTS + arraySize + 1));
+      int written = 0;
+      for (int j = 0; j < arraySize; j++) {
+        offsets[j] = written;
+        SortedList list = hashArray[j];
+        for (Link current = list == null ? null : list.getFirst();
+            current != null; current = current.next) {
+          putInt(channel, buffer, current.getKey());
+          written++;
+        }
+      }
+      offsets[arraySize] = written;
+      flush(channel, buffer);
+
+      // then the header and the offset table
+      channel.position(0);
+      putInt(channel, buffer, SNAPSHOT_MAGIC);
+      putInt(channel, buffer, arraySize);
+      putInt(channel, buffer, written);
+      putInt(channel, buffer, Float.floatToIntBits(loadFactor));
+      for (int offset : offsets)
+        putInt(channel, buffer, offset);
+      flush(channel, buffer);
+    }
+  }
+
+  private static void putInt(FileChannel channel, ByteBuffer buffer, int value)
+      throws IOException {
+    if (buffer.remaining() < 4)
+      flush(channel, buffer);
+    buffer.putInt(value);
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    buffer.clear();
+  }
+
+  public static HashChain load(String fileName) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+      buffer.flip(); // start empty, in read mode
+
+      if (getInt(channel, buffer) != SNAPSHOT_MAGIC)
+        throw new IOException(fileName + " is not a HashChain snapshot");
+      int size = getInt(channel, buffer);
+      int count = getInt(channel, buffer);
+      float loadFactor = Float.intBitsToFloat(getInt(channel, buffer));
+
+      int[] offsets = new int[size + 1];
+      for (int j = 0; j <= size; j++)
+        offsets[j] = getInt(channel, buffer);
+
+      HashChain hashTable = new HashChain(size, loadFactor);
+      int[] bucket = new int[16];
+      for (int j = 0; j < size; j++) {
+        int n = offsets[j + 1] - offsets[j];
+        if (n == 0)
+          continue;
+        if (n > bucket.length)
+          bucket = new int[Math.max(n, 2 * bucket.length)];
+        for (int i = 0; i < n; i++)
+          bucket[i] = getInt(channel, buffer);
+        // keys are ascending, so inserting from the back always hits the
+        // head of the list and never walks it
+        SortedList list = hashTable.hashArray[j] = new SortedList();
+        for (int i = n - 1; i >= 0; i--)
+          list.insert(new Link(bucket[i]));
+        hashTable.chainResized(0, n, true);
+      }
+      hashTable.count = count;
+      return hashTable;
+    }
+  }
+
+  private static int getInt(FileChannel channel, ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 4) {
+      buffer.compact();
+      while (buffer.position() < 4)
+        if (channel.read(buffer) < 0)
+          throw new IOException("truncated HashChain snapshot");
+      while (buffer.hasRemaining() && channel.read(buffer) > 0)
+        ;
+      buffer.flip();
+    }
+    return buffer.getInt();
+  }
+
   public static void main(String[] args) throws IOException {
     int aKey;
     Link dataItem;
@@ -238,6 +801,27 @@ public class HashChain {
     else
       System.out.println("Could not find " + aKey);
 	System.out.println("\nTime Taken by Find " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+	int[] keys = new int[initSize];
+	for (int i = 0; i < initSize; i++)
+	  keys[i] = i;
+	hashTable = new HashChain(size);
+	startTime = System.nanoTime();
+	hashTable.insertAll(keys);
+	System.out.println("\nTime Taken by insertAll " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+	boolean[] found = new boolean[initSize];
+	startTime = System.nanoTime();
+	hashTable.findAll(keys, found);
+	System.out.println("\nTime Taken by findAll of " + initSize + " keys " + (System.nanoTime() - startTime) + " nanoseconds.");
+	System.out.println("\n" + hashTable.stats());
+
+	hashTable.enableBloomFilter(initSize, 0.01);
+	startTime = System.nanoTime();
+	if (hashTable.find(initSize) == null)
+	  System.out.println("Could not find " + initSize);
+	System.out.println("\nTime Taken by Find with Bloom filter " + (System.nanoTime() - startTime) + " nanoseconds.");
+	System.out.println(hashTable.getBloomFilter());
   }
 
 }
@@ -0,0 +1,118 @@
+/*************************************************************************
+ *
+ *  Snapshot of HashChain statistics, returned by HashChain.stats().
+ *
+ * Visible methods:
+ * public long getSize()                      --> Number of links stored
+ * public int getBucketCount()                --> Number of buckets
+ * public int getUsedBuckets()                --> Buckets holding at least one link
+ * public double getLoadFactor()              --> links / buckets
+ * public int getMaxChainLength()             --> Longest chain
+ * public long[] getChainLengthHistogram()    --> [i] = buckets with a chain of length i,
+ *                                                the last entry counts all longer chains
+ * public long getFindCount()                 --> finds since the last reset
+ * public double getAverageLinksPerFind()     --> links compared per find
+ * public long getInsertCount()               --> inserts since the last reset
+ * public double getAverageLinksPerInsert()   --> links walked per SortedList insert
+ * public boolean isResizing()                --> true while the table is growing
+ *
+ *   Remarks
+ *   -------
+ * With a good spread the histogram is concentrated on lengths 0, 1 and 2
+ * and finds compare about 1 + loadFactor / 2 links. A long tail or a large
+ * max chain length means hashFunc maps many keys to the same buckets.
+ * While the table is resizing, the chains not yet moved out of the old
+ * table are included in the histogram as well.
+ *************************************************************************/
+
+import java.util.Arrays;
+
+public class HashChainStats {
+  static final int HISTOGRAM_BINS = 17; // chain lengths 0..15 and 16 or more
+
+  private final long size;
+  private final int bucketCount;
+  private final int usedBuckets;
+  private final int maxChainLength;
+  private final long[] chainLengthHistogram;
+  private final long insertCount;
+  private final long insertLinksWalked;
+  private final long findCount;
+  private final long findLinksTraversed;
+  private final boolean resizing;
+
+  HashChainStats(long size, int bucketCount, int usedBuckets, int maxChainLength,
+      long[] chainLengthHistogram, long insertCount, long insertLinksWalked,
+      long findCount, long findLinksTraversed, boolean resizing) {
+    this.size = size;
+    this.bucketCount = bucketCount;
+    this.usedBuckets = usedBuckets;
+    this.maxChainLength = maxChainLength;
+    this.chainLengthHistogram = chainLengthHistogram;
+    this.insertCount = insertCount;
+    this.insertLinksWalked = insertLinksWalked;
+    this.findCount = findCount;
+    this.findLinksTraversed = findLinksTraversed;
+    this.resizing = resizing;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public int getBucketCount() {
+    return bucketCount;
+  }
+
+  public int getUsedBuckets() {
+    return usedBuckets;
+  }
+
+  public double getLoadFactor() {
+    return (double) size / bucketCount;
+  }
+
+  public int getMaxChainLength() {
+    return maxChainLength;
+  }
+
+  public long[] getChainLengthHistogram() {
+    return chainLengthHistogram.clone();
+  }
+
+  public long getFindCount() {
+    return findCount;
+  }
+
+  public long getFindLinksTraversed() {
+    return findLinksTraversed;
+  }
+
+  public double getAverageLinksPerFind() {
+    return findCount == 0 ? 0 : (double) findLinksTraversed / findCount;
+  }
+
+  public long getInsertCount() {
+    return insertCount;
+  }
+
+  public long getInsertLinksWalked() {
+    return insertLinksWalked;
+  }
+
+  public double getAverageLinksPerInsert() {
+    return insertCount == 0 ? 0 : (double) insertLinksWalked / insertCount;
+  }
+
+  public boolean isResizing() {
+    return resizing;
+  }
+
+  public String toString() {
+    return "size=" + size + " buckets=" + bucketCount + " used=" + usedBuckets
+        + " maxChain=" + maxChainLength + " histogram=" + Arrays.toString(chainLengthHistogram)
+        + " finds=" + findCount + " linksPerFind=" + getAverageLinksPerFind()
+        + " inserts=" + insertCount + " linksPerInsert=" + getAverageLinksPerInsert()
+        + (resizing ? " (resizing)" : "");
+  }
+}
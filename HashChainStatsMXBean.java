@@ -0,0 +1,25 @@
+/*************************************************************************
+ *
+ *  JMX view of a HashChain, registered by HashChain.registerMBean(name).
+ *
+ * Visible methods:
+ * HashChainStats getStats()         --> Full snapshot (shown as composite data)
+ * int getMaxChainLength()           --> Longest chain
+ * double getAverageLinksPerFind()   --> links compared per find
+ * void resetStats()                 --> Zero the probe counters
+ *
+ *   Remarks
+ *   -------
+ * HashChain is not thread-safe, so values read from another thread while
+ * the table is being changed are approximate.
+ *************************************************************************/
+
+public interface HashChainStatsMXBean {
+  HashChainStats getStats();
+
+  int getMaxChainLength();
+
+  double getAverageLinksPerFind();
+
+  void resetStats();
+}
@@ -0,0 +1,447 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of an AVL Tree of primitive ints
+ *  Description: This Problem measures running time for Insertion and Search for an
+ *               AVL Tree whose nodes are stored in parallel int arrays.
+ *
+ *  Input: Number of Nodes
+ *  Output: running times to insert and find node in tree
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * void insert( x )       --> Insert x
+ * void remove( x )       --> Remove x
+ * boolean contains( x )  --> Return true if x is present
+ * int findMin( )         --> Return smallest item
+ * int findMax( )         --> Return largest item
+ * int size( )            --> Return number of items
+ * boolean isEmpty( )     --> Return true if empty; else false
+ * void makeEmpty( )      --> Remove all items
+ * void printTree( )      --> Print tree in sorted order
+ *
+ *   Remarks
+ *   -------
+ * Same algorithm as AvlTree<Integer>, but a node is an index into four int
+ * arrays (key, left, right, height) instead of an AvlNode holding a boxed
+ * Integer: 16 bytes per node instead of about 40, and no objects for the
+ * garbage collector to trace. Index 0 is the empty tree (height -1), which
+ * removes the null checks from height( ). Removed nodes go on a free list
+ * threaded through the left array and are reused by later inserts.
+ *
+ *************************************************************************/
+
+import java.util.Arrays;
+
+public class IntAvlTree
+{
+    private static final int NIL = 0;
+    private static final int ALLOWED_IMBALANCE = 1;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[ ] key;
+    private int[ ] left;
+    private int[ ] right;
+    private int[ ] height;
+
+    private int root;       // NIL when empty
+    private int used;       // slots handed out so far (slot 0 is NIL)
+    private int freeList;   // removed slots, chained through left
+    private int size;
+
+    /**
+     * Construct the tree.
+     */
+    public IntAvlTree( )
+    {
+        this( 16 );
+    }
+
+    /**
+     * Construct the tree with room for capacity items before growing.
+     */
+    public IntAvlTree( int capacity )
+    {
+        allocate( Math.max( 2, capacity + 1 ) );
+    }
+
+    private void allocate( int capacity )
+    {
+        key    = new int[ capacity ];
+        left   = new int[ capacity ];
+        right  = new int[ capacity ];
+        height = new int[ capacity ];
+        height[ NIL ] = -1;
+        root = NIL;
+        used = 1;
+        freeList = NIL;
+        size = 0;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public void insert( int x )
+    {
+        root = insert( x, root );
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     */
+    public void remove( int x )
+    {
+        root = remove( x, root );
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item.
+     */
+    public int findMin( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        return key[ findMin( root ) ];
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     */
+    public int findMax( )
+    {
+        if( isEmpty( ) )
+            throw new UnderflowException( );
+        int t = root;
+        while( right[ t ] != NIL )
+            t = right[ t ];
+        return key[ t ];
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( int x )
+    {
+        int t = root;
+        while( t != NIL )
+        {
+            int k = key[ t ];
+            if( x < k )
+                t = left[ t ];
+            else if( x > k )
+                t = right[ t ];
+            else
+                return true;    // Match
+        }
+        return false;   // No match
+    }
+
+    /**
+     * Make the tree logically empty. The arrays are kept for reuse.
+     */
+    public void makeEmpty( )
+    {
+        root = NIL;
+        used = 1;
+        freeList = NIL;
+        size = 0;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return root == NIL;
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return size;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree( )
+    {
+        if( isEmpty( ) )
+            System.out.println( "Empty tree" );
+        else
+            printTree( root );
+    }
+
+    public void checkBalance( )
+    {
+        checkBalance( root );
+    }
+
+    private int checkBalance( int t )
+    {
+        if( t == NIL )
+            return -1;
+
+        int hl = checkBalance( left[ t ] );
+        int hr = checkBalance( right[ t ] );
+        if( Math.abs( height[ left[ t ] ] - height[ right[ t ] ] ) > 1 ||
+                height[ left[ t ] ] != hl || height[ right[ t ] ] != hr )
+            System.out.println( "OOPS!!" );
+
+        return height[ t ];
+    }
+
+    /**
+     * Take a slot from the free list, or a fresh one, growing the arrays
+     * when they are full.
+     */
+    private int newNode( int x )
+    {
+        int t;
+        if( freeList != NIL )
+        {
+            t = freeList;
+            freeList = left[ t ];
+        }
+        else
+        {
+            if( used == key.length )
+                grow( );
+            t = used++;
+        }
+        key[ t ] = x;
+        left[ t ] = NIL;
+        right[ t ] = NIL;
+        height[ t ] = 0;
+        size++;
+        return t;
+    }
+
+    private void freeNode( int t )
+    {
+        left[ t ] = freeList;
+        freeList = t;
+        size--;
+    }
+
+    private void grow( )
+    {
+        if( key.length == MAX_CAPACITY )
+            throw new IllegalStateException( "IntAvlTree is full" );
+        int capacity = (int) Math.min( MAX_CAPACITY, key.length + ( key.length >> 1 ) + 1L );
+        key    = Arrays.copyOf( key, capacity );
+        left   = Arrays.copyOf( left, capacity );
+        right  = Arrays.copyOf( right, capacity );
+        height = Arrays.copyOf( height, capacity );
+    }
+
+    /**
+     * Internal method to insert into a subtree.
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private int insert( int x, int t )
+    {
+        if( t == NIL )
+            return newNode( x );
+
+        int k = key[ t ];
+        if( x < k )
+        {
+            int l = insert( x, left[ t ] );
+            left[ t ] = l;  // arrays may have been reallocated by the call
+        }
+        else if( x > k )
+        {
+            int r = insert( x, right[ t ] );
+            right[ t ] = r;
+        }
+        else
+            ;  // Duplicate; do nothing
+        return balance( t );
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private int remove( int x, int t )
+    {
+        if( t == NIL )
+            return t;   // Item not found; do nothing
+
+        int k = key[ t ];
+        if( x < k )
+            left[ t ] = remove( x, left[ t ] );
+        else if( x > k )
+            right[ t ] = remove( x, right[ t ] );
+        else if( left[ t ] != NIL && right[ t ] != NIL ) // Two children
+        {
+            key[ t ] = key[ findMin( right[ t ] ) ];
+            right[ t ] = remove( key[ t ], right[ t ] );
+        }
+        else
+        {
+            int child = ( left[ t ] != NIL ) ? left[ t ] : right[ t ];
+            freeNode( t );
+            t = child;
+        }
+        return balance( t );
+    }
+
+    /**
+     * Internal method to find the smallest item in a subtree.
+     * @param t the node that roots the tree.
+     * @return node containing the smallest item.
+     */
+    private int findMin( int t )
+    {
+        while( left[ t ] != NIL )
+            t = left[ t ];
+        return t;
+    }
+
+    // Assume t is either balanced or within one of being balanced
+    private int balance( int t )
+    {
+        if( t == NIL )
+            return t;
+
+        int l = left[ t ];
+        int r = right[ t ];
+        if( height[ l ] - height[ r ] > ALLOWED_IMBALANCE )
+            if( height[ left[ l ] ] >= height[ right[ l ] ] )
+                t = rotateWithLeftChild( t );
+            else
+                t = doubleWithLeftChild( t );
+        else
+        if( height[ r ] - height[ l ] > ALLOWED_IMBALANCE )
+            if( height[ right[ r ] ] >= height[ left[ r ] ] )
+                t = rotateWithRightChild( t );
+            else
+                t = doubleWithRightChild( t );
+
+        height[ t ] = Math.max( height[ left[ t ] ], height[ right[ t ] ] ) + 1;
+        return t;
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     * For AVL trees, this is a single rotation for case 1.
+     * Update heights, then return new root.
+     */
+    private int rotateWithLeftChild( int k2 )
+    {
+        int k1 = left[ k2 ];
+        left[ k2 ] = right[ k1 ];
+        right[ k1 ] = k2;
+        height[ k2 ] = Math.max( height[ left[ k2 ] ], height[ right[ k2 ] ] ) + 1;
+        height[ k1 ] = Math.max( height[ left[ k1 ] ], height[ k2 ] ) + 1;
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * For AVL trees, this is a single rotation for case 4.
+     * Update heights, then return new root.
+     */
+    private int rotateWithRightChild( int k1 )
+    {
+        int k2 = right[ k1 ];
+        right[ k1 ] = left[ k2 ];
+        left[ k2 ] = k1;
+        height[ k1 ] = Math.max( height[ left[ k1 ] ], height[ right[ k1 ] ] ) + 1;
+        height[ k2 ] = Math.max( height[ right[ k2 ] ], height[ k1 ] ) + 1;
+        return k2;
+    }
+
+    /**
+     * Double rotate binary tree node: first left child
+     * with its right child; then node k3 with new left child.
+     * For AVL trees, this is a double rotation for case 2.
+     * Update heights, then return new root.
+     */
+    private int doubleWithLeftChild( int k3 )
+    {
+        left[ k3 ] = rotateWithRightChild( left[ k3 ] );
+        return rotateWithLeftChild( k3 );
+    }
+
+    /**
+     * Double rotate binary tree node: first right child
+     * with its left child; then node k1 with new right child.
+     * For AVL trees, this is a double rotation for case 3.
+     * Update heights, then return new root.
+     */
+    private int doubleWithRightChild( int k1 )
+    {
+        right[ k1 ] = rotateWithLeftChild( right[ k1 ] );
+        return rotateWithRightChild( k1 );
+    }
+
+    /**
+     * Internal method to print a subtree in sorted order.
+     * @param t the node that roots the tree.
+     */
+    private void printTree( int t )
+    {
+        if( t != NIL )
+        {
+            printTree( left[ t ] );
+            System.out.println( key[ t ] );
+            printTree( right[ t ] );
+        }
+    }
+
+
+        // Test program
+    public static void main( String [ ] args )
+    {
+        IntAvlTree t = new IntAvlTree( );
+        final int SMALL = 40;
+        final int NUMS = 10000000;  // must be even
+        final int GAP  =   1;
+
+        System.out.println( "Checking... (no more output means success)" );
+        System.out.println( "\nInt AVL Tree: " );
+
+        long startTime = System.nanoTime( );
+
+        for( int i = GAP; i != 0; i = ( i + GAP ) % NUMS )
+        {
+            t.insert( i );
+            if( NUMS < SMALL )
+                t.checkBalance( );
+        }
+
+        System.out.println( "\nTime Taken by Insert " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        startTime = System.nanoTime( );
+
+        if( t.findMin( ) != 1 || t.findMax( ) != NUMS - 1 )
+            System.out.println( "FindMin or FindMax error!" );
+
+        if( !t.contains( NUMS ) )
+            System.out.println( "item not found" );
+
+        System.out.println( "\nThe time taken by Find " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        for( int i = 1; i < NUMS; i += 2 )
+            t.remove( i );
+        if( t.size( ) != NUMS / 2 - 1 || t.findMin( ) != 2 || t.contains( 1 ) )
+            System.out.println( "Remove error!" );
+    }
+}
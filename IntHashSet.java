@@ -0,0 +1,165 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of insertion and find for an open-addressing Hash Table
+ *  Description: This Problem measures running time for Insertion and Search for a Hash Table
+ *               that stores primitive int keys directly in a flat array.
+ *
+ *  Input: number of entries
+ *  Output: running times to insert and find key value in Hash Table
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * public boolean insert(int key)  --> insert into hash table, false if already present
+ * public boolean find(int key)    --> true if key is present
+ * public boolean delete(int key)  --> delete from hash table, false if not present
+ * public int size()               --> number of keys stored
+ * public void displayTable()      --> Print hash table
+ *
+ *   Remarks
+ *   -------
+ * HashChain allocates a Link for every key and a SortedList for every bucket, so
+ * each lookup chases at least two pointers. Here the keys live in a single int[]
+ * and a lookup walks neighbouring slots (linear probing), which normally stays
+ * inside one or two cache lines. No objects are created per key, so a table of
+ * 10000000 keys is one array instead of tens of millions of small heap objects.
+ *
+ * Slot value 0 marks an empty slot; the key 0 itself is tracked by a flag.
+ * Deletion shifts the following entries of the probe run back instead of
+ * leaving tombstones, so lookups never slow down after many deletes.
+ * At 2^30 slots the table stops doubling and fills up to its last empty slot;
+ * inserting a new key after that throws IllegalStateException("table full").
+ *************************************************************************/
+
+public class IntHashSet {
+  private static final int EMPTY = IntHashing.EMPTY;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private int[] slots;
+  private int mask;
+  private int size;     // keys stored in slots (not counting key 0)
+  private int maxFill;  // grow when size reaches this
+  private boolean hasZero;
+
+  public IntHashSet(int expectedSize) {
+    int capacity = IntHashing.tableSizeFor((int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR));
+    allocate(capacity);
+  }
+
+  public IntHashSet() {
+    this(16);
+  }
+
+  private void allocate(int capacity) {
+    slots = new int[capacity];
+    mask = capacity - 1;
+    maxFill = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private int slotFor(int key) {
+    return IntHashing.slotFor(key, mask);
+  }
+
+  public boolean insert(int key) {
+    if (key == EMPTY) {
+      if (hasZero)
+        return false;
+      hasZero = true;
+      return true;
+    }
+    int i = slotFor(key);
+    int cur;
+    while ((cur = slots[i]) != EMPTY) {
+      if (cur == key)
+        return false; // already present
+      i = (i + 1) & mask;
+    }
+    if (size == mask)
+      throw new IllegalStateException("table full"); // one slot must stay empty
+    slots[i] = key;
+    if (++size >= maxFill)
+      grow();
+    return true;
+  }
+
+  public boolean find(int key) {
+    if (key == EMPTY)
+      return hasZero;
+    int i = slotFor(key);
+    int cur;
+    while ((cur = slots[i]) != EMPTY) {
+      if (cur == key)
+        return true;
+      i = (i + 1) & mask;
+    }
+    return false; // cannot find it
+  }
+
+  public boolean delete(int key) {
+    if (key == EMPTY) {
+      boolean had = hasZero;
+      hasZero = false;
+      return had;
+    }
+    int i = slotFor(key);
+    int cur;
+    while ((cur = slots[i]) != key) {
+      if (cur == EMPTY)
+        return false; // not present
+      i = (i + 1) & mask;
+    }
+    IntHashing.shiftBack(slots, null, mask, i);
+    size--;
+    return true;
+  }
+
+  private void grow() {
+    if (slots.length < IntHashing.MAX_CAPACITY)
+      rehash(slots.length << 1);
+    else
+      maxFill = mask; // cannot double any more; use every slot but one
+  }
+
+  private void rehash(int newCapacity) {
+    int[] old = slots;
+    allocate(newCapacity);
+    IntHashing.rehash(old, null, slots, null);
+  }
+
+  public int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  public void displayTable() {
+    if (hasZero)
+      System.out.println("zero. 0");
+    for (int j = 0; j < slots.length; j++) {
+      if (slots[j] != EMPTY)
+        System.out.println(j + ". " + slots[j]);
+    }
+  }
+
+  public static void main(String[] args) {
+    int aKey;
+    int initSize = 10000000;
+    IntHashSet hashTable = new IntHashSet(initSize);
+
+    System.out.println("\nIntHashSet : ");
+    long startTime = System.nanoTime();
+    for (int i = 0; i < initSize; i++) {
+      aKey = i;
+      hashTable.insert(aKey);
+    }
+
+    System.out.println("\nTime Taken by Insert " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+    startTime = System.nanoTime();
+    aKey = initSize;
+    if (hashTable.find(aKey))
+      System.out.println("Found " + aKey);
+    else
+      System.out.println("Could not find " + aKey);
+    System.out.println("\nTime Taken by Find " + (System.nanoTime() - startTime) + " nanoseconds.");
+  }
+}
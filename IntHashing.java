@@ -0,0 +1,78 @@
+/*************************************************************************
+ *
+ *  Table helpers shared by IntHashSet and IntLongHashMap.
+ *
+ *  Both keep int keys in a power-of-two array probed linearly, with slot
+ *  value 0 (EMPTY) meaning empty. IntLongHashMap keeps its values in a
+ *  parallel long[] at the same index; IntHashSet passes null for it.
+ *
+ * Visible methods:
+ * static int tableSizeFor(int n)          --> smallest power of two >= n, at most MAX_CAPACITY
+ * static int slotFor(int key, int mask)   --> home slot of key
+ * static void shiftBack(int[] keys, long[] values, int mask, int gap)
+ *                                         --> close the gap left by a deleted key
+ * static void rehash(int[] oldKeys, long[] oldValues, int[] keys, long[] values)
+ *                                         --> move every entry into new, empty arrays
+ *
+ * A table cannot double past MAX_CAPACITY (2^30): it then fills up to its
+ * last empty slot, which every probe needs to stop at, and the next new key
+ * gets an IllegalStateException.
+ *************************************************************************/
+
+final class IntHashing {
+  static final int EMPTY = 0;
+  static final int MAX_CAPACITY = 1 << 30;
+
+  private IntHashing() {
+  }
+
+  static int tableSizeFor(int n) {
+    if (n >= MAX_CAPACITY)
+      return MAX_CAPACITY;
+    return Integer.highestOneBit(n - 1) << 1;
+  }
+
+  // Fibonacci hashing: spreads consecutive keys over the whole table
+  static int slotFor(int key, int mask) {
+    int h = key * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  // Close the gap at slot `gap` by moving back any later entry of the run
+  // whose home slot is not between the gap and its current position.
+  static void shiftBack(int[] keys, long[] values, int mask, int gap) {
+    int i = gap;
+    while (true) {
+      i = (i + 1) & mask;
+      int cur = keys[i];
+      if (cur == EMPTY)
+        break;
+      int home = slotFor(cur, mask);
+      // distance from home to i versus distance from home to gap
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = cur;
+        if (values != null)
+          values[gap] = values[i];
+        gap = i;
+      }
+    }
+    keys[gap] = EMPTY;
+    if (values != null)
+      values[gap] = 0;
+  }
+
+  static void rehash(int[] oldKeys, long[] oldValues, int[] keys, long[] values) {
+    int mask = keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      int key = oldKeys[j];
+      if (key != EMPTY) {
+        int i = slotFor(key, mask);
+        while (keys[i] != EMPTY)
+          i = (i + 1) & mask;
+        keys[i] = key;
+        if (values != null)
+          values[i] = oldValues[j];
+      }
+    }
+  }
+}
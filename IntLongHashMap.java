@@ -0,0 +1,213 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of a counting workload on an int -> long Hash Table
+ *  Description: This Problem measures running time for updating counters kept in a
+ *               Hash Table that stores int keys and long values without boxing.
+ *
+ *  Input: number of entries
+ *  Output: running times to count keys with IntLongHashMap and with HashMap<Integer, Long>
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * public void put(int key, long value)             --> set the value of key
+ * public long get(int key, long defaultValue)      --> value of key, defaultValue if absent
+ * public boolean containsKey(int key)              --> true if key is present
+ * public boolean remove(int key)                   --> remove key, false if not present
+ * public long addTo(int key, long delta)           --> add delta (absent counts as 0), return new value
+ * public long compute(int key, long absentValue, LongUnaryOperator update)
+ *                                                  --> store update(current or absentValue), return it
+ * public int size()                                --> number of keys stored
+ *
+ *   Remarks
+ *   -------
+ * Same table as IntHashSet, sharing its probing code in IntHashing: keys in
+ * an int[] probed linearly, slot value 0 meaning empty, the key 0 kept on
+ * the side. Values sit at the same index in
+ * a parallel long[], so a lookup reads one key slot and one value slot and no
+ * Integer or Long is ever created. A lambda passed to compute that captures
+ * nothing is a single shared instance, so compute does not allocate either.
+ * Like IntHashSet, the table stops doubling at 2^30 slots, and a new key
+ * that would take its last empty slot gets IllegalStateException("table full").
+ *************************************************************************/
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+public class IntLongHashMap {
+  private static final int EMPTY = IntHashing.EMPTY;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private int[] keys;
+  private long[] values;
+  private int mask;
+  private int size;     // keys stored in slots (not counting key 0)
+  private int maxFill;  // grow when size reaches this
+  private boolean hasZero;
+  private long zeroValue;
+
+  public IntLongHashMap(int expectedSize) {
+    int capacity = IntHashing.tableSizeFor((int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR));
+    allocate(capacity);
+  }
+
+  public IntLongHashMap() {
+    this(16);
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+    maxFill = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private int slotFor(int key) {
+    return IntHashing.slotFor(key, mask);
+  }
+
+  // slot holding key, or -(empty slot where it would go) - 1
+  private int indexOf(int key) {
+    int i = slotFor(key);
+    int cur;
+    while ((cur = keys[i]) != EMPTY) {
+      if (cur == key)
+        return i;
+      i = (i + 1) & mask;
+    }
+    return -i - 1;
+  }
+
+  // store a new key at the empty slot returned by indexOf
+  private void insertAt(int slot, int key, long value) {
+    if (size == mask)
+      throw new IllegalStateException("table full"); // one slot must stay empty
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size >= maxFill)
+      grow();
+  }
+
+  public void put(int key, long value) {
+    if (key == EMPTY) {
+      hasZero = true;
+      zeroValue = value;
+      return;
+    }
+    int i = indexOf(key);
+    if (i >= 0)
+      values[i] = value;
+    else
+      insertAt(-i - 1, key, value);
+  }
+
+  public long get(int key, long defaultValue) {
+    if (key == EMPTY)
+      return hasZero ? zeroValue : defaultValue;
+    int i = slotFor(key);
+    int cur;
+    while ((cur = keys[i]) != EMPTY) {
+      if (cur == key)
+        return values[i];
+      i = (i + 1) & mask;
+    }
+    return defaultValue;
+  }
+
+  public boolean containsKey(int key) {
+    if (key == EMPTY)
+      return hasZero;
+    return indexOf(key) >= 0;
+  }
+
+  public long addTo(int key, long delta) {
+    if (key == EMPTY) {
+      zeroValue = hasZero ? zeroValue + delta : delta;
+      hasZero = true;
+      return zeroValue;
+    }
+    int i = indexOf(key);
+    if (i >= 0)
+      return values[i] += delta;
+    insertAt(-i - 1, key, delta);
+    return delta;
+  }
+
+  public long compute(int key, long absentValue, LongUnaryOperator update) {
+    if (key == EMPTY) {
+      zeroValue = update.applyAsLong(hasZero ? zeroValue : absentValue);
+      hasZero = true;
+      return zeroValue;
+    }
+    int i = indexOf(key);
+    if (i >= 0)
+      return values[i] = update.applyAsLong(values[i]);
+    long value = update.applyAsLong(absentValue);
+    insertAt(-i - 1, key, value);
+    return value;
+  }
+
+  public boolean remove(int key) {
+    if (key == EMPTY) {
+      boolean had = hasZero;
+      hasZero = false;
+      zeroValue = 0;
+      return had;
+    }
+    int i = indexOf(key);
+    if (i < 0)
+      return false; // not present
+    IntHashing.shiftBack(keys, values, mask, i);
+    size--;
+    return true;
+  }
+
+  private void grow() {
+    if (keys.length < IntHashing.MAX_CAPACITY)
+      rehash(keys.length << 1);
+    else
+      maxFill = mask; // cannot double any more; use every slot but one
+  }
+
+  private void rehash(int newCapacity) {
+    int[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(newCapacity);
+    IntHashing.rehash(oldKeys, oldValues, keys, values);
+  }
+
+  public int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  public static void main(String[] args) {
+    int initSize = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+    int distinct = initSize / 10;
+
+    // random keys, so neither table gets the easy sequential pattern
+    int[] stream = new int[initSize];
+    Random random = new Random(42);
+    for (int i = 0; i < initSize; i++)
+      stream[i] = random.nextInt(distinct);
+
+    System.out.println("\nIntLongHashMap : ");
+    IntLongHashMap counts = new IntLongHashMap();
+    long startTime = System.nanoTime();
+    for (int i = 0; i < initSize; i++)
+      counts.addTo(stream[i], 1);
+    System.out.println("\nTime Taken by addTo " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+    System.out.println("\nHashMap<Integer, Long> : ");
+    HashMap<Integer, Long> boxed = new HashMap<Integer, Long>();
+    startTime = System.nanoTime();
+    for (int i = 0; i < initSize; i++)
+      boxed.merge(stream[i], 1L, Long::sum);
+    System.out.println("\nTime Taken by merge " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+    if (counts.size() != boxed.size() || counts.get(stream[0], -1) != boxed.get(stream[0])
+        || counts.get(distinct, -1) != -1)
+      System.out.println("Count error!");
+  }
+}
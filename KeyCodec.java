@@ -0,0 +1,102 @@
+/*************************************************************************
+ *
+ *  Encoding of tree items for AvlTree.writeTo / AvlTree.readFrom.
+ *
+ * Visible methods:
+ * void write( x, previous, out ) --> Write x; previous is the item written before it, or null
+ * Object read( previous, in )    --> Read the item written after previous (null for the first)
+ *
+ * Visible data fields:
+ * KeyCodec.INTEGER  --> Integers as zig-zag varint deltas from the previous item
+ * KeyCodec.LONG     --> Longs as zig-zag varint deltas from the previous item
+ * KeyCodec.STRING   --> Strings in modified UTF-8
+ *
+ *   Remarks
+ *   -------
+ * Items are written in ascending order, so a codec may store each item
+ * relative to the one before it. For consecutive integers every delta is 1
+ * and each item takes a single byte instead of four.
+ *************************************************************************/
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface KeyCodec<AnyType>
+{
+    void write( AnyType x, AnyType previous, DataOutput out ) throws IOException;
+
+    AnyType read( AnyType previous, DataInput in ) throws IOException;
+
+    KeyCodec<Integer> INTEGER = new KeyCodec<Integer>( )
+    {
+        public void write( Integer x, Integer previous, DataOutput out ) throws IOException
+        {
+            int delta = x - ( previous == null ? 0 : previous );    // wraps; read wraps back
+            writeVarLong( out, ( ( delta << 1 ) ^ ( delta >> 31 ) ) & 0xFFFFFFFFL );
+        }
+
+        public Integer read( Integer previous, DataInput in ) throws IOException
+        {
+            int zigzag = (int) readVarLong( in );
+            int delta = ( zigzag >>> 1 ) ^ -( zigzag & 1 );
+            return ( previous == null ? 0 : previous ) + delta;
+        }
+    };
+
+    KeyCodec<Long> LONG = new KeyCodec<Long>( )
+    {
+        public void write( Long x, Long previous, DataOutput out ) throws IOException
+        {
+            long delta = x - ( previous == null ? 0 : previous );
+            writeVarLong( out, ( delta << 1 ) ^ ( delta >> 63 ) );
+        }
+
+        public Long read( Long previous, DataInput in ) throws IOException
+        {
+            long zigzag = readVarLong( in );
+            long delta = ( zigzag >>> 1 ) ^ -( zigzag & 1 );
+            return ( previous == null ? 0 : previous ) + delta;
+        }
+    };
+
+    KeyCodec<String> STRING = new KeyCodec<String>( )
+    {
+        public void write( String x, String previous, DataOutput out ) throws IOException
+        {
+            out.writeUTF( x );
+        }
+
+        public String read( String previous, DataInput in ) throws IOException
+        {
+            return in.readUTF( );
+        }
+    };
+
+    /**
+     * Write an unsigned value in 7-bit groups, low group first; the high
+     * bit of each byte says whether another byte follows.
+     */
+    static void writeVarLong( DataOutput out, long value ) throws IOException
+    {
+        while( ( value & ~0x7FL ) != 0 )
+        {
+            out.writeByte( (int) ( value & 0x7F ) | 0x80 );
+            value >>>= 7;
+        }
+        out.writeByte( (int) value );
+    }
+
+    static long readVarLong( DataInput in ) throws IOException
+    {
+        long value = 0;
+        for( int shift = 0; shift < 64; shift += 7 )
+        {
+            int b = in.readUnsignedByte( );
+            value |= (long) ( b & 0x7F ) << shift;
+            if( ( b & 0x80 ) == 0 )
+                return value;
+        }
+        throw new IOException( "malformed varint" );
+    }
+}
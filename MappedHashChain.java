@@ -0,0 +1,123 @@
+/*************************************************************************
+ *
+ *  Problem: Testing warm-start time of a Hash Table saved to disk
+ *  Description: This Problem measures how long it takes to get a usable Hash Table
+ *               back from a snapshot file, compared with inserting every key again.
+ *
+ *  Input: number of entries
+ *  Output: running times to insert, save, reload and map a Hash Table snapshot
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * public static MappedHashChain open(String fileName) --> Map a snapshot written by HashChain.save
+ * public int hashFunc(int key)     --> Hash function, same as the HashChain that wrote the file
+ * public boolean find(int key)     --> true if key is present
+ * public int size()                --> Number of keys in the snapshot
+ *
+ *   Remarks
+ *   -------
+ * Opening only maps the file, so it costs the same for 1000 keys as for
+ * 10000000; the operating system pages the data in as lookups touch it, and
+ * the pages are shared between processes that map the same file. The table
+ * is read-only: to change it, HashChain.load the snapshot, modify it and save
+ * it again.
+ *
+ * A single mapping is limited to 2 GB, which is about 500 million keys.
+ *************************************************************************/
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedHashChain {
+  private final IntBuffer data;
+  private final int arraySize;
+  private final int count;
+  private final int keysStart; // index of the first key in data
+
+  private MappedHashChain(IntBuffer data) {
+    this.data = data;
+    arraySize = data.get(1);
+    count = data.get(2);
+    keysStart = HashChain.SNAPSHOT_HEADER_INTS + arraySize + 1;
+  }
+
+  public static MappedHashChain open(String fileName) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length > Integer.MAX_VALUE)
+        throw new IOException(fileName + " is too large to map (" + length + " bytes)");
+      // the mapping stays valid after the channel is closed
+      IntBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, length).asIntBuffer();
+      if (data.limit() < HashChain.SNAPSHOT_HEADER_INTS || data.get(0) != HashChain.SNAPSHOT_MAGIC)
+        throw new IOException(fileName + " is not a HashChain snapshot");
+      MappedHashChain table = new MappedHashChain(data);
+      if ((long) table.keysStart + table.count > data.limit())
+        throw new IOException("truncated HashChain snapshot " + fileName);
+      return table;
+    }
+  }
+
+  public int hashFunc(int key) {
+    return key % arraySize;
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public boolean find(int key) {
+    int hashVal = hashFunc(key);
+    int offsets = HashChain.SNAPSHOT_HEADER_INTS + hashVal;
+    int from = keysStart + data.get(offsets);
+    int to = keysStart + data.get(offsets + 1);
+    for (int i = from; i < to; i++) { // keys of a bucket are ascending
+      int current = data.get(i);
+      if (current >= key)
+        return current == key;
+    }
+    return false; // cannot find it
+  }
+
+  public static void main(String[] args) throws IOException {
+    int initSize = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+    String fileName = Files.createTempFile("hashchain", ".snap").toString();
+    try {
+      HashChain hashTable = new HashChain(initSize);
+      long startTime = System.nanoTime();
+      for (int i = 0; i < initSize; i++)
+        hashTable.insert(new Link(i));
+      System.out.println("\nTime Taken by Insert " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+      startTime = System.nanoTime();
+      hashTable.save(fileName);
+      System.out.println("Time Taken by Save " + (System.nanoTime() - startTime) + " nanoseconds.");
+      hashTable = null;
+
+      startTime = System.nanoTime();
+      HashChain reloaded = HashChain.load(fileName);
+      System.out.println("Time Taken by Load " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+      startTime = System.nanoTime();
+      MappedHashChain mapped = MappedHashChain.open(fileName);
+      System.out.println("Time Taken by Open (mapped) " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+      if (reloaded.size() != initSize || mapped.size() != initSize
+          || reloaded.find(initSize / 2) == null || !mapped.find(initSize / 2)
+          || reloaded.find(initSize) != null || mapped.find(initSize))
+        System.out.println("Snapshot error!");
+
+      startTime = System.nanoTime();
+      if (!mapped.find(initSize))
+        System.out.println("Could not find " + initSize);
+      System.out.println("Time Taken by Find (mapped) " + (System.nanoTime() - startTime) + " nanoseconds.");
+    } finally {
+      Files.deleteIfExists(Paths.get(fileName));
+    }
+  }
+}
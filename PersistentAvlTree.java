@@ -0,0 +1,374 @@
+/*************************************************************************
+ *
+ *  Problem: Testing running times of a persistent (path-copying) AVL Tree
+ *  Description: This Problem measures running time for Insertion and Search for an
+ *               AVL Tree whose nodes are never changed after they are built, and
+ *               the cost of taking snapshots of it.
+ *
+ *  Input: Number of Nodes
+ *  Output: running times to insert, snapshot and find node in tree
+ *
+ *  Visible data fields:
+ * none.
+ *
+ * Visible methods:
+ * void insert( x )       --> Insert x
+ * void remove( x )       --> Remove x
+ * boolean contains( x )  --> Return true if x is present
+ * Comparable findMin( )  --> Return smallest item
+ * Comparable findMax( )  --> Return largest item
+ * int size( )            --> Return number of items
+ * boolean isEmpty( )     --> Return true if empty; else false
+ * void makeEmpty( )      --> Remove all items
+ * PersistentAvlTree snapshot( ) --> Return an independent copy in O(1)
+ * void printTree( )      --> Print tree in sorted order
+ *
+ *   Remarks
+ *   -------
+ * Nodes are immutable. An insert or remove copies only the nodes on the
+ * path from the root to the change (and the few a rotation touches), about
+ * log N of them, and shares every other node with the previous version.
+ * A snapshot is therefore just the current root: taking one costs O(1), and
+ * later changes to either tree never show up in the other.
+ *
+ * The root is published through a volatile field and writers serialize on
+ * the tree, so a reader of the tree or of any snapshot never waits: it walks
+ * a version that nothing will change.
+ *************************************************************************/
+
+public class PersistentAvlTree<AnyType extends Comparable<? super AnyType>>
+{
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    /**
+     * Construct the tree.
+     */
+    public PersistentAvlTree( )
+    {
+        root = null;
+    }
+
+    private PersistentAvlTree( AvlNode<AnyType> theRoot )
+    {
+        root = theRoot;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public synchronized void insert( AnyType x )
+    {
+        root = insert( x, root );
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     */
+    public synchronized void remove( AnyType x )
+    {
+        root = remove( x, root );
+    }
+
+    /**
+     * Return a tree holding the current items. The two trees share all
+     * their nodes until one of them is changed, and changes to one are
+     * never seen by the other.
+     */
+    public PersistentAvlTree<AnyType> snapshot( )
+    {
+        return new PersistentAvlTree<AnyType>( root );
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     * @return smallest item.
+     */
+    public AnyType findMin( )
+    {
+        AvlNode<AnyType> t = root;
+        if( t == null )
+            throw new UnderflowException( );
+        while( t.left != null )
+            t = t.left;
+        return t.element;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     * @return the largest item.
+     */
+    public AnyType findMax( )
+    {
+        AvlNode<AnyType> t = root;
+        if( t == null )
+            throw new UnderflowException( );
+        while( t.right != null )
+            t = t.right;
+        return t.element;
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( AnyType x )
+    {
+        AvlNode<AnyType> t = root;
+        while( t != null )
+        {
+            int compareResult = x.compareTo( t.element );
+
+            if( compareResult < 0 )
+                t = t.left;
+            else if( compareResult > 0 )
+                t = t.right;
+            else
+                return true;    // Match
+        }
+        return false;   // No match
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( )
+    {
+        return size( root );
+    }
+
+    /**
+     * Make the tree logically empty. Snapshots are not affected.
+     */
+    public synchronized void makeEmpty( )
+    {
+        root = null;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return root == null;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree( )
+    {
+        AvlNode<AnyType> t = root;
+        if( t == null )
+            System.out.println( "Empty tree" );
+        else
+            printTree( t );
+    }
+
+    public void checkBalance( )
+    {
+        checkBalance( root );
+    }
+
+    private int checkBalance( AvlNode<AnyType> t )
+    {
+        if( t == null )
+            return -1;
+
+        int hl = checkBalance( t.left );
+        int hr = checkBalance( t.right );
+        if( Math.abs( height( t.left ) - height( t.right ) ) > 1 ||
+                height( t.left ) != hl || height( t.right ) != hr ||
+                t.size != size( t.left ) + size( t.right ) + 1 )
+            System.out.println( "OOPS!!" );
+
+        return height( t );
+    }
+
+    /**
+     * Internal method to insert into a subtree.
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the root of the new version of the subtree.
+     */
+    private AvlNode<AnyType> insert( AnyType x, AvlNode<AnyType> t )
+    {
+        if( t == null )
+            return new AvlNode<AnyType>( x, null, null );
+
+        int compareResult = x.compareTo( t.element );
+
+        if( compareResult < 0 )
+        {
+            AvlNode<AnyType> lt = insert( x, t.left );
+            return lt == t.left ? t : balance( t.element, lt, t.right );
+        }
+        else if( compareResult > 0 )
+        {
+            AvlNode<AnyType> rt = insert( x, t.right );
+            return rt == t.right ? t : balance( t.element, t.left, rt );
+        }
+        else
+            return t;   // Duplicate; nothing is copied
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the root of the new version of the subtree.
+     */
+    private AvlNode<AnyType> remove( AnyType x, AvlNode<AnyType> t )
+    {
+        if( t == null )
+            return t;   // Item not found; do nothing
+
+        int compareResult = x.compareTo( t.element );
+
+        if( compareResult < 0 )
+        {
+            AvlNode<AnyType> lt = remove( x, t.left );
+            return lt == t.left ? t : balance( t.element, lt, t.right );
+        }
+        else if( compareResult > 0 )
+        {
+            AvlNode<AnyType> rt = remove( x, t.right );
+            return rt == t.right ? t : balance( t.element, t.left, rt );
+        }
+        else if( t.left != null && t.right != null ) // Two children
+        {
+            AvlNode<AnyType> min = t.right;
+            while( min.left != null )
+                min = min.left;
+            return balance( min.element, t.left, remove( min.element, t.right ) );
+        }
+        else
+            return ( t.left != null ) ? t.left : t.right;
+    }
+
+    /**
+     * Build a node from an item and two subtrees whose heights differ by
+     * at most two, rotating if needed. Only new nodes are created.
+     */
+    private AvlNode<AnyType> balance( AnyType x, AvlNode<AnyType> lt, AvlNode<AnyType> rt )
+    {
+        if( height( lt ) - height( rt ) > ALLOWED_IMBALANCE )
+        {
+            if( height( lt.left ) >= height( lt.right ) )
+                // single rotation with left child
+                return node( lt.element, lt.left, node( x, lt.right, rt ) );
+            else
+            {
+                // double rotation with left child
+                AvlNode<AnyType> k2 = lt.right;
+                return node( k2.element, node( lt.element, lt.left, k2.left ),
+                                         node( x, k2.right, rt ) );
+            }
+        }
+        if( height( rt ) - height( lt ) > ALLOWED_IMBALANCE )
+        {
+            if( height( rt.right ) >= height( rt.left ) )
+                // single rotation with right child
+                return node( rt.element, node( x, lt, rt.left ), rt.right );
+            else
+            {
+                // double rotation with right child
+                AvlNode<AnyType> k2 = rt.left;
+                return node( k2.element, node( x, lt, k2.left ),
+                                         node( rt.element, k2.right, rt.right ) );
+            }
+        }
+        return node( x, lt, rt );
+    }
+
+    private static <AnyType> AvlNode<AnyType> node( AnyType x, AvlNode<AnyType> lt, AvlNode<AnyType> rt )
+    {
+        return new AvlNode<AnyType>( x, lt, rt );
+    }
+
+    /**
+     * Internal method to print a subtree in sorted order.
+     * @param t the node that roots the tree.
+     */
+    private void printTree( AvlNode<AnyType> t )
+    {
+        if( t != null )
+        {
+            printTree( t.left );
+            System.out.println( t.element );
+            printTree( t.right );
+        }
+    }
+
+    /**
+     * Return the height of node t, or -1, if null.
+     */
+    private static int height( AvlNode<?> t )
+    {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Return the number of items in subtree t, or 0, if null.
+     */
+    private static int size( AvlNode<?> t )
+    {
+        return t == null ? 0 : t.size;
+    }
+
+    private static final class AvlNode<AnyType>
+    {
+        AvlNode( AnyType theElement, AvlNode<AnyType> lt, AvlNode<AnyType> rt )
+        {
+            element  = theElement;
+            left     = lt;
+            right    = rt;
+            height   = Math.max( height( lt ), height( rt ) ) + 1;
+            size     = size( lt ) + size( rt ) + 1;
+        }
+
+        final AnyType           element;      // The data in the node
+        final AvlNode<AnyType>  left;         // Left child
+        final AvlNode<AnyType>  right;        // Right child
+        final int               height;       // Height
+        final int               size;         // Number of nodes in this subtree
+    }
+
+      /** The current version; replaced, never changed, by writers. */
+    private volatile AvlNode<AnyType> root;
+
+
+        // Test program
+    public static void main( String [ ] args )
+    {
+        PersistentAvlTree<Integer> t = new PersistentAvlTree<Integer>( );
+        final int NUMS = 1000000;
+
+        System.out.println( "Checking... (no more output means success)" );
+        System.out.println( "\nPersistent AVL Tree: " );
+
+        long startTime = System.nanoTime( );
+        for( int i = 1; i < NUMS; i++ )
+            t.insert( i );
+        System.out.println( "\nTime Taken by Insert " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        startTime = System.nanoTime( );
+        PersistentAvlTree<Integer> report = t.snapshot( );
+        System.out.println( "\nTime Taken by Snapshot " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+
+        for( int i = 1; i < NUMS; i += 2 )
+            t.remove( i );
+
+        if( report.size( ) != NUMS - 1 || !report.contains( 1 ) || t.contains( 1 ) ||
+                t.size( ) != NUMS / 2 - 1 || t.findMin( ) != 2 || report.findMin( ) != 1 )
+            System.out.println( "Snapshot error!" );
+
+        startTime = System.nanoTime( );
+        if( !t.contains( NUMS ) )
+            System.out.println( "item not found" );
+        System.out.println( "\nThe time taken by Find " + ( System.nanoTime( ) - startTime ) + " nanoseconds." );
+    }
+}
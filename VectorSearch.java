@@ -0,0 +1,159 @@
+/*
+ *  Problem: Testing running times of vectorized linear search
+ *  Description: This program measures the running times of linear search one int
+ *               at a time, linear search a whole vector at a time, and binary
+ *               search, to find the array size where binary search starts to win.
+ *
+ *  Input: array sizes (default 16 to 10000000)
+ *  Output: average running time of one search for each method and size,
+ *          the best of several warmed-up rounds, and the crossover size
+ *
+ *  Visible data fields:
+ * none.
+ *
+ *  Visible methods:
+ * public static int indexOf(int[] a, int key)   --> index of the first key in a, or -1
+ * public static boolean contains(int[] a, int key)
+ * public static boolean isVectorized()          --> true if the Vector API is in use
+ * public static void main(String[] args)
+ *
+ *
+ *   Remarks
+ *   -------
+ * The vector loop lives in vector/VectorSearchKernel.java, which needs the
+ * incubating jdk.incubator.vector module (JDK 16 and later) at compile and
+ * run time. It is kept out of the top directory because javac *.java fails
+ * on it without the module. To use it, compile it next to this class:
+ *      javac --add-modules jdk.incubator.vector -d . vector/VectorSearchKernel.java
+ *      java --add-modules jdk.incubator.vector VectorSearch
+ * This class only finds the kernel by name, so it compiles and runs without
+ * the module. When the module is not in the boot layer or the kernel was not
+ * compiled, indexOf falls back to the scalar loop of testSearch.linearSearch.
+ * The kernel is called through a static final method handle, which the
+ * JIT inlines like a direct call.
+ *
+ * The data need not be sorted. For sorted data, binary search touches
+ * log2 N ints against N/2 on average for a linear scan, but each of its
+ * steps is a dependent load and a mispredicted branch. A vector scan
+ * compares 32 or more ints per branch, so it wins on small arrays; main
+ * reports the largest size where it is still the faster of the two, and
+ * whether the vector kernel or the scalar fallback was measured. Each time
+ * is the best of ROUNDS runs after WARMUP runs that let the JIT compile
+ * the loops, so one slow sample does not move the crossover.
+ */
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+
+public class VectorSearch {
+    private static final MethodHandle KERNEL = findKernel();
+    private static final int WARMUP = 2;
+    private static final int ROUNDS = 5;
+
+    private static MethodHandle findKernel() {
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().findStatic(Class.forName("VectorSearchKernel"), "indexOf",
+                    MethodType.methodType(int.class, int[].class, int.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;    // kernel not compiled; use the scalar loop
+        }
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL != null;
+    }
+
+    public static int indexOf(int[] a, int key) {
+        if (KERNEL != null) {
+            try {
+                return (int) KERNEL.invokeExact(a, key);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);     // indexOf throws no checked exceptions
+            }
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == key) return i;
+        }
+        return -1;
+    }
+
+    public static boolean contains(int[] a, int key) {
+        return indexOf(a, key) >= 0;
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = {16, 64, 256, 1024, 4096, 16384, 65536, 262144, 1048576, 10000000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        String measured = isVectorized() ? "Vector API kernel" : "scalar fallback";
+        System.out.println(isVectorized() ? "Vector API in use." : "Vector API not available; using the scalar loop.");
+
+        int crossover = -1;
+        for (int size : sizes) {
+            int[] numbers = new int[size];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = i;
+            }
+            // about 20 million ints scanned per method and round
+            int searches = (int) Math.max(100, Math.min(1000000, 40000000L / size));
+            Random random = new Random(size);
+            int[] keys = new int[searches];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextInt(size);
+            }
+
+            long linearTime = Long.MAX_VALUE, vectorTime = Long.MAX_VALUE, binaryTime = Long.MAX_VALUE;
+            for (int round = 0; round < WARMUP + ROUNDS; round++) {
+                long sum1 = 0, sum2 = 0;
+                int found = 0;
+
+                long startTime = System.nanoTime();
+                for (int key : keys) {
+                    if (testSearch.linearSearch(numbers, key)) sum1 += key;
+                }
+                long linear = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int key : keys) {
+                    sum2 += indexOf(numbers, key);
+                }
+                long vector = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int key : keys) {
+                    if (testSearch.binarySearch(numbers, key)) found++;
+                }
+                long binary = System.nanoTime() - startTime;
+
+                if (sum1 != sum2 || found != searches) {
+                    System.out.println("Search error!");
+                }
+                if (round >= WARMUP) {  // keep the best of the timed rounds
+                    linearTime = Math.min(linearTime, linear);
+                    vectorTime = Math.min(vectorTime, vector);
+                    binaryTime = Math.min(binaryTime, binary);
+                }
+            }
+
+            System.out.println("\nSize " + size + ", best time taken per search of " + ROUNDS + " rounds:");
+            System.out.println("Linear Search " + linearTime / searches + " nanoseconds.");
+            System.out.println("Vector Search (" + measured + ") " + vectorTime / searches + " nanoseconds.");
+            System.out.println("Binary Search " + binaryTime / searches + " nanoseconds.");
+            if (vectorTime <= binaryTime) {
+                crossover = size;
+            }
+        }
+        System.out.println("\nVector search (" + measured + ") is faster than binary search up to size "
+                + (crossover < 0 ? "(none measured)" : crossover) + ".");
+    }
+}
@@ -13,6 +13,7 @@
  * public static void main(String[] args)
  * public static boolean linearSearch(int[] a, int key)
  * public static boolean binarySearch(int[] a, int key)
+ * public static void binarySearchAll(int[] sorted, int[] keys, int[] outIndex)
  *
  *
  *   Remarks
@@ -31,6 +32,18 @@
  *  10000000  |      5345910             |  6072
  *  ---------------------------------------------------------------
  *
+ * binarySearchAll looks up many keys at once. One search is a chain of
+ * loads where each address depends on the previous compare, so a large
+ * array costs one full cache miss per level. binarySearchAll runs 16
+ * searches in lockstep: each level does one independent probe per search,
+ * so the 16 misses overlap instead of following one another. The probes
+ * use the branchless form base += (a[base + half - 1] < key) ? half : 0,
+ * with the same halving sequence for every search in the group.
+ * If the keys are already in increasing order, each search gallops forward
+ * from the previous key's position instead, in steps of 1, 2, 4, ...,
+ * so nearby keys cost a few compares.
+ * Results follow Arrays.binarySearch: the index of the key, or
+ * -(insertion point) - 1. With duplicates the first match is returned.
 
 */
 import java.util.*;
@@ -65,6 +78,45 @@ public class testSearch {
         binarySearch(numbers,size);
         // display the time elapsed
 		System.out.println("The time taken by Binary Search is " + (System.nanoTime() - startTime) + " nanoseconds.");
+
+        // a million lookups, half of them missing, one at a time and batched
+        int[] keys = new int[1000000];
+        int[] outIndex = new int[keys.length];
+        Random random = new Random();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(2 * size + 1) - size / 2;
+        }
+        int[] sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+        for (int round = 0; round < 5; round++) {   // the first rounds warm up the JIT
+            int found = 0;
+            startTime = System.nanoTime();
+            for (int key : keys) {
+                if (binarySearch(numbers, key)) found++;
+            }
+            long singleTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            binarySearchAll(numbers, keys, outIndex);
+            long batchTime = System.nanoTime() - startTime;
+            for (int i = 0; i < keys.length; i++) {
+                if (outIndex[i] >= 0) found--;
+            }
+
+            startTime = System.nanoTime();
+            binarySearchAll(numbers, sortedKeys, outIndex);
+            long sortedTime = System.nanoTime() - startTime;
+            for (int i = 0; i < keys.length; i += 1000) {
+                if (outIndex[i] != Arrays.binarySearch(numbers, sortedKeys[i])) found = -1;
+            }
+
+            if (found != 0) System.out.println("Batched search error!");
+            if (round == 4) {
+                System.out.println("The time taken by " + keys.length + " Binary Searches is " + singleTime + " nanoseconds.");
+                System.out.println("The time taken by Batched Binary Search is " + batchTime + " nanoseconds.");
+                System.out.println("The time taken by Batched Binary Search on sorted keys is " + sortedTime + " nanoseconds.");
+            }
+        }
 	}
 
     public static boolean linearSearch(int[] a, int key) {
@@ -90,4 +142,76 @@ public class testSearch {
         }
         return false;
     }
+
+    private static final int GROUP = 16;    // searches run in lockstep
+
+    public static void binarySearchAll(int[] sorted, int[] keys, int[] outIndex) {
+        if (outIndex.length < keys.length) {
+            throw new IllegalArgumentException("outIndex is shorter than keys");
+        }
+        int n = sorted.length;
+        if (n == 0) {
+            Arrays.fill(outIndex, 0, keys.length, -1);
+            return;
+        }
+        boolean increasing = true;
+        for (int i = 1; i < keys.length && increasing; i++) {
+            increasing = keys[i - 1] <= keys[i];
+        }
+        if (increasing) {
+            gallopAll(sorted, keys, outIndex);
+            return;
+        }
+
+        int[] base = new int[GROUP];
+        int[] group = new int[GROUP];
+        for (int start = 0; start < keys.length; start += GROUP) {
+            // a short last group is padded with its last key; the extra results are dropped
+            int count = Math.min(GROUP, keys.length - start);
+            System.arraycopy(keys, start, group, 0, count);
+            Arrays.fill(group, count, GROUP, keys[keys.length - 1]);
+            Arrays.fill(base, 0);
+            int len = n;
+            while (len > 1) {
+                int half = len >>> 1;
+                for (int g = 0; g < GROUP; g++) {
+                    int b = base[g];
+                    base[g] = b + (sorted[b + half - 1] < group[g] ? half : 0);
+                }
+                len -= half;
+            }
+            for (int g = 0; g < count; g++) {
+                int key = group[g];
+                int b = base[g];
+                int bound = sorted[b] < key ? b + 1 : b;   // first index with sorted[bound] >= key
+                outIndex[start + g] = bound < n && sorted[bound] == key ? bound : -(bound + 1);
+            }
+        }
+    }
+
+    // keys in increasing order: every search starts where the previous one ended
+    private static void gallopAll(int[] sorted, int[] keys, int[] outIndex) {
+        int n = sorted.length;
+        int bound = 0;      // every sorted[i] with i < bound is less than the key
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            int hi = bound;
+            int step = 1;
+            while (hi < n && sorted[hi] < key) {
+                bound = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            hi = Math.min(hi, n);
+            while (bound < hi) {    // first index in [bound, hi) with sorted[index] >= key
+                int mid = (bound + hi) >>> 1;
+                if (sorted[mid] < key) {
+                    bound = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            outIndex[i] = bound < n && sorted[bound] == key ? bound : -(bound + 1);
+        }
+    }
 }
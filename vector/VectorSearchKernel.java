@@ -0,0 +1,63 @@
+/*
+ *  Vectorized linear search used by VectorSearch when the
+ *  jdk.incubator.vector module is present.
+ *
+ *  It lives in its own directory so that javac *.java in the top directory
+ *  compiles without the module. Compile it into the top directory and run
+ *  with the module added:
+ *      javac --add-modules jdk.incubator.vector -d . vector/VectorSearchKernel.java
+ *      java --add-modules jdk.incubator.vector VectorSearch
+ *
+ *  Visible methods:
+ * static int indexOf(int[] a, int key)   --> index of the first key in a, or -1
+ * static int lanes()                     --> ints compared per vector
+ *
+ *   Remarks
+ *   -------
+ * Each step loads four vectors of the preferred width (8 ints each with
+ * AVX2, 16 with AVX-512), compares every lane with the key and tests the
+ * four masks together, so there is one branch per 32 or 64 ints. Only when
+ * a step has a match are the masks examined one by one for the first set
+ * lane. The tail shorter than one vector is scanned one int at a time.
+ */
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorSearchKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorSearchKernel() {
+    }
+
+    static int lanes() {
+        return LANES;
+    }
+
+    static int indexOf(int[] a, int key) {
+        int i = 0;
+        int bound4 = a.length - 4 * LANES;
+        for (; i <= bound4; i += 4 * LANES) {
+            VectorMask<Integer> m0 = IntVector.fromArray(SPECIES, a, i).eq(key);
+            VectorMask<Integer> m1 = IntVector.fromArray(SPECIES, a, i + LANES).eq(key);
+            VectorMask<Integer> m2 = IntVector.fromArray(SPECIES, a, i + 2 * LANES).eq(key);
+            VectorMask<Integer> m3 = IntVector.fromArray(SPECIES, a, i + 3 * LANES).eq(key);
+            if (m0.or(m1).or(m2).or(m3).anyTrue()) {
+                if (m0.anyTrue()) return i + m0.firstTrue();
+                if (m1.anyTrue()) return i + LANES + m1.firstTrue();
+                if (m2.anyTrue()) return i + 2 * LANES + m2.firstTrue();
+                return i + 3 * LANES + m3.firstTrue();
+            }
+        }
+        int bound = SPECIES.loopBound(a.length);
+        for (; i < bound; i += LANES) {
+            VectorMask<Integer> m = IntVector.fromArray(SPECIES, a, i).eq(key);
+            if (m.anyTrue()) return i + m.firstTrue();
+        }
+        for (; i < a.length; i++) {
+            if (a[i] == key) return i;
+        }
+        return -1;
+    }
+}